@@ -0,0 +1,68 @@
+package at.apf.easycli.benchmark;
+
+import at.apf.easycli.CliEngine;
+import at.apf.easycli.CommandResult;
+import at.apf.easycli.impl.EasyEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Measures parsing a replayed chat log of 10000 mixed commands one by one and as batch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+    private final Object user = new Object();
+    private List<String> cmds;
+    private CliEngine engine;
+
+    @Setup
+    public void setup() {
+        String[] inputs = { Inputs.SHORT, Inputs.QUOTED, Inputs.FLAGS, Inputs.varargs(10), Inputs.META,
+                Inputs.MANY_COMMANDS };
+        cmds = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            cmds.add(inputs[i % inputs.length]);
+        }
+        engine = new EasyEngine();
+        engine.register(new BenchmarkCommands());
+        engine.register(ManyCommands.create());
+    }
+
+    @Benchmark
+    public Object oneByOne() throws Exception {
+        Object last = null;
+        for (String cmd: cmds) {
+            last = engine.parse(cmd, user);
+        }
+        return last;
+    }
+
+    @Benchmark
+    public List<CommandResult> parseAll() {
+        return engine.parseAll(cmds, user);
+    }
+
+    @Benchmark
+    public List<CommandResult> parseAllParallel() {
+        return engine.parseAllParallel(cmds, ForkJoinPool.commonPool(), user);
+    }
+}
@@ -0,0 +1,52 @@
+package at.apf.easycli.benchmark;
+
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.annotation.DefaultValue;
+import at.apf.easycli.annotation.Flag;
+import at.apf.easycli.annotation.Meta;
+import at.apf.easycli.annotation.Optional;
+import at.apf.easycli.annotation.Usage;
+
+import java.util.Arrays;
+
+/***
+ * A realistic mix of commands as they are used by chat bots.
+ */
+public class BenchmarkCommands {
+
+    public enum Color {
+        RED, GREEN, BLUE, CYAN, MAGENTA, YELLOW, BLACK, WHITE, ORANGE, PURPLE, BROWN, GREY
+    }
+
+    @Usage("Adds two numbers")
+    @Command("/add")
+    public int add(int a, int b) {
+        return a + b;
+    }
+
+    @Usage("Sorts the given numbers")
+    @Command("/sort")
+    public int[] sort(@Usage("sort descending") @Flag(value = 'd', alternative = "desc") boolean desc, int[] arr) {
+        Arrays.sort(arr);
+        return arr;
+    }
+
+    @Usage("Sends a message to the receiver")
+    @Command("/send")
+    public String send(String receiver, @Optional String msg) {
+        return msg == null ? receiver : msg;
+    }
+
+    @Usage("Paints something in the given color")
+    @Command("/paint")
+    public Color paint(@Flag('v') boolean verbose, @Flag(value = 'f', alternative = "fill") boolean fill,
+                       @Flag('s') boolean stroke, Color color, @DefaultValue("1") int times) {
+        return color;
+    }
+
+    @Usage("Tells who is asking")
+    @Command("/whoami")
+    public Object whoami(@Meta Object user, @Meta @Optional Object room) {
+        return user;
+    }
+}
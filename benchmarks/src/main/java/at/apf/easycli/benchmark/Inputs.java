@@ -0,0 +1,40 @@
+package at.apf.easycli.benchmark;
+
+/***
+ * Command strings used by the benchmarks.
+ */
+final class Inputs {
+
+    static final String SHORT = "/add 2 3";
+    static final String QUOTED = "/send alice \"Hi \\\"alice\\\", how are you? I hope you are fine\"";
+    static final String FLAGS = "/paint -vs --fill cyan 3";
+    static final String VARARGS = varargs(100);
+    static final String META = "/whoami";
+    static final String MANY_COMMANDS = "/cmd097 42";
+
+    private Inputs() {
+    }
+
+    /***
+     * @return a /sort command with the given amount of int arguments.
+     */
+    static String varargs(int count) {
+        StringBuilder sb = new StringBuilder("/sort -d");
+        for (int i = 0; i < count; i++) {
+            sb.append(' ').append((i * 7919) % 1000);
+        }
+        return sb.toString();
+    }
+
+    static String byName(String name) {
+        switch (name) {
+            case "short": return SHORT;
+            case "quoted": return QUOTED;
+            case "flags": return FLAGS;
+            case "varargs": return VARARGS;
+            case "meta": return META;
+            case "manyCommands": return MANY_COMMANDS;
+            default: throw new IllegalArgumentException("Unknown input '" + name + "'");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package at.apf.easycli.benchmark;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/***
+ * Lots of small commands to measure the lookup cost with a big command table. The class with the commands is
+ * generated and compiled when it is first used, so the benchmarks have to run on a JDK.
+ */
+final class ManyCommands {
+
+    /***
+     * Number of generated commands, named /cmd000, /cmd001, ...
+     */
+    static final int COUNT = 128;
+
+    private static final String CLASS_NAME = "at.apf.easycli.benchmark.GeneratedCommands";
+
+    private static Class<?> type;
+
+    private ManyCommands() {
+    }
+
+    /***
+     * @return a new object of the generated class, whose command /cmdN takes an int and returns it plus N.
+     */
+    static synchronized Object create() {
+        try {
+            if (type == null) {
+                type = compile(CLASS_NAME, source());
+            }
+            return type.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create the generated commands", e);
+        }
+    }
+
+    private static String source() {
+        StringBuilder sb = new StringBuilder()
+                .append("package at.apf.easycli.benchmark;\n")
+                .append("public class GeneratedCommands {\n");
+        for (int i = 0; i < COUNT; i++) {
+            String name = String.format("cmd%03d", i);
+            sb.append("    @at.apf.easycli.annotation.Command(\"/").append(name).append("\")\n")
+                    .append("    public int ").append(name).append("(int a) {\n")
+                    .append("        return a + ").append(i).append(";\n")
+                    .append("    }\n");
+        }
+        return sb.append("}\n").toString();
+    }
+
+    /***
+     * Compiles a class in memory against the class path of the benchmarks and loads it.
+     */
+    private static Class<?> compile(String name, String source) throws ClassNotFoundException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("The benchmarks need a JDK to compile the generated commands");
+        }
+        Map<String, ByteArrayOutputStream> classes = new HashMap<>();
+        StandardJavaFileManager standard = compiler.getStandardFileManager(null, null, null);
+        JavaFileManager files = new ForwardingJavaFileManager<StandardJavaFileManager>(standard) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                                       FileObject sibling) {
+                URI uri = URI.create("mem:///" + className.replace('.', '/') + kind.extension);
+                return new SimpleJavaFileObject(uri, kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        ByteArrayOutputStream out = new ByteArrayOutputStream();
+                        classes.put(className, out);
+                        return out;
+                    }
+                };
+            }
+        };
+        URI uri = URI.create("string:///" + name.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension);
+        JavaFileObject file = new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        // without annotation processing, so the commands are invoked like any class without a generated dispatcher
+        List<String> options = Arrays.asList("-proc:none", "-classpath", System.getProperty("java.class.path"));
+        if (!compiler.getTask(null, files, null, options, null, Collections.singletonList(file)).call()) {
+            throw new IllegalStateException("Could not compile the generated commands");
+        }
+        ClassLoader loader = new ClassLoader(ManyCommands.class.getClassLoader()) {
+            @Override
+            protected Class<?> findClass(String className) throws ClassNotFoundException {
+                ByteArrayOutputStream out = classes.get(className);
+                if (out == null) {
+                    throw new ClassNotFoundException(className);
+                }
+                byte[] bytes = out.toByteArray();
+                return defineClass(className, bytes, 0, bytes.length);
+            }
+        };
+        return loader.loadClass(name);
+    }
+}
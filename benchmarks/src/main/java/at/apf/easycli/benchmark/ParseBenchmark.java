@@ -0,0 +1,53 @@
+package at.apf.easycli.benchmark;
+
+import at.apf.easycli.CliEngine;
+import at.apf.easycli.impl.EasyEngine;
+import at.apf.easycli.impl.InvocationStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Measures the whole {@link CliEngine#parse(String, Object...)} path: splitting, binding and dispatching.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    @Param({"short", "quoted", "flags", "varargs", "meta", "manyCommands"})
+    private String input;
+
+    @Param({"METHOD_HANDLE", "REFLECTION", "SPECIALIZED"})
+    private InvocationStrategy strategy;
+
+    private String cmd;
+    private CliEngine engine;
+    private final Object user = new Object();
+
+    @Setup
+    public void setup() {
+        cmd = Inputs.byName(input);
+        engine = new EasyEngine(strategy);
+        engine.register(new BenchmarkCommands());
+        engine.register(ManyCommands.create());
+    }
+
+    @Benchmark
+    public Object parse() throws Exception {
+        return engine.parse(cmd, user);
+    }
+}
@@ -0,0 +1,52 @@
+package at.apf.easycli.benchmark;
+
+import at.apf.easycli.impl.CliSplitter;
+import at.apf.easycli.impl.Tokens;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Measures {@link CliSplitter#split(String)} and {@link CliSplitter#tokenize(CharSequence)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SplitBenchmark {
+
+    @Param({"short", "quoted", "flags", "varargs"})
+    private String input;
+
+    private String cmd;
+    private CliSplitter splitter;
+
+    @Setup
+    public void setup() {
+        cmd = Inputs.byName(input);
+        splitter = new CliSplitter();
+    }
+
+    @Benchmark
+    public List<String> split() {
+        return splitter.split(cmd);
+    }
+
+    @Benchmark
+    public Tokens tokenize() {
+        return splitter.tokenize(cmd);
+    }
+}
@@ -0,0 +1,58 @@
+package at.apf.easycli.benchmark;
+
+import at.apf.easycli.util.TypeParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Measures {@link TypeParser#parseType(Class, String)} for the supported kinds of types.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TypeParserBenchmark {
+
+    private final TypeParser tp = new TypeParser();
+    private String intValue = "123456";
+    private String doubleValue = "-4.543";
+    private String stringValue = "alice";
+    private String firstEnumValue = "red";
+    private String lastEnumValue = "grey";
+
+    @Benchmark
+    public Object parseInt() {
+        return tp.parseType(int.class, intValue);
+    }
+
+    @Benchmark
+    public Object parseDouble() {
+        return tp.parseType(double.class, doubleValue);
+    }
+
+    @Benchmark
+    public Object parseString() {
+        return tp.parseType(String.class, stringValue);
+    }
+
+    @Benchmark
+    public Object parseFirstEnumConstant() {
+        return tp.parseType(BenchmarkCommands.Color.class, firstEnumValue);
+    }
+
+    @Benchmark
+    public Object parseLastEnumConstant() {
+        return tp.parseType(BenchmarkCommands.Color.class, lastEnumValue);
+    }
+}
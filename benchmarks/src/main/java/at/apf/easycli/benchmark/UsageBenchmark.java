@@ -0,0 +1,58 @@
+package at.apf.easycli.benchmark;
+
+import at.apf.easycli.CliEngine;
+import at.apf.easycli.impl.EasyEngine;
+import at.apf.easycli.impl.UsagePrinter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Measures the rendering of usage texts and the command listing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UsageBenchmark {
+
+    private final UsagePrinter usagePrinter = new UsagePrinter();
+    private Method paint;
+    private CliEngine engine;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        paint = BenchmarkCommands.class.getMethod("paint", boolean.class, boolean.class, boolean.class,
+                BenchmarkCommands.Color.class, int.class);
+        engine = new EasyEngine();
+        engine.register(new BenchmarkCommands());
+        engine.register(ManyCommands.create());
+    }
+
+    @Benchmark
+    public String commandUsage() {
+        return usagePrinter.commandUsage(paint);
+    }
+
+    @Benchmark
+    public String engineUsage() {
+        return engine.usage("/paint");
+    }
+
+    @Benchmark
+    public String listCommands() {
+        return engine.listCommands();
+    }
+}
@@ -1,8 +1,21 @@
 package at.apf.easycli;
 
+import at.apf.easycli.util.TypeConverter;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
 /***
  * Able to register Objects that contain @{@link at.apf.easycli.exception.CommandNotFoundException} annotated methods
  * and afterwards parse command strings to invoke those methods with all its arguments.
+ *
+ * <p>Only {@link #register(Object)}, the parse methods, {@link #listCommands()} and {@link #usage(String)} have to be
+ * implemented. All other methods have default implementations built on them, or throw
+ * {@link UnsupportedOperationException} if they can't be built on them.</p>
  */
 public interface CliEngine {
 
@@ -22,6 +35,61 @@ public interface CliEngine {
      */
     void register(Object obj);
 
+    /***
+     * Registers the commands of a class lazily. Only their names are registered, the instance is created by the
+     * supplier and the commands are compiled and validated when one of them is parsed the first time, so registering
+     * a large number of commands doesn't slow down the startup. Without declared names, they are read from the
+     * generated dispatcher of the class or from its @{@link at.apf.easycli.annotation.Command} annotations. The
+     * default implementation creates the instance right away and registers it with {@link #register(Object)}.
+     * @param type class which implements the commands.
+     * @param supplier creates the instance to invoke the commands on.
+     * @param commands names of the commands the class implements, or none to collect them from the class.
+     * @param <T> type of the instance.
+     *
+     * <pre>
+     *   cliEngine.register(Repository.class, Repository::new, "/repo add", "/repo remove");
+     * </pre>
+     */
+    default <T> void register(Class<T> type, Supplier<? extends T> supplier, String... commands) {
+        register(supplier.get());
+    }
+
+    /***
+     * Compiles and validates all lazily registered commands right away, e.g. to find malformed commands in a test.
+     * The default implementation does nothing, because its default {@link #register(Class, Supplier, String...)}
+     * registers nothing lazily.
+     * @throws at.apf.easycli.exception.MalformedMethodException if one of the commands is malformed.
+     */
+    default void validate() {
+    }
+
+    /***
+     * Removes all commands which were registered with the obj. Does nothing if obj was not registered.
+     * @param obj Object to unregister.
+     * @throws UnsupportedOperationException if the engine doesn't support to unregister commands, like the default
+     *         implementation.
+     */
+    default void unregister(Object obj) {
+        throw new UnsupportedOperationException("unregister");
+    }
+
+    /***
+     * Registers a converter for a custom parameter type. The converter has to be registered before the commands
+     * using the type get registered.
+     * @param type the parameter type.
+     * @param converter converter which converts the arguments to the type.
+     * @param <T> the parameter type.
+     *
+     * <pre>
+     *   cliEngine.registerConverter(Color.class, Color::decode);
+     * </pre>
+     * @throws UnsupportedOperationException if the engine doesn't support custom converters, like the default
+     *         implementation.
+     */
+    default <T> void registerConverter(Class<T> type, TypeConverter<? extends T> converter) {
+        throw new UnsupportedOperationException("registerConverter");
+    }
+
     /***
      * Parses the command string, and searchs for a registered command implementation and invokes it with all its
      * arguments.
@@ -49,6 +117,95 @@ public interface CliEngine {
      */
     Object parse(String cmd, Object... metadata) throws Exception;
 
+    /***
+     * Parses and invokes the command like {@link #parse(String, Object...)} and passes the elements of its result
+     * one by one to the sink. Commands can return a {@link java.util.stream.Stream}, {@link java.util.Iterator} or
+     * {@link Iterable}, whose elements are only produced when the sink is ready for them, so a large result never
+     * has to fit into memory. Arrays are passed element by element as well, null passes nothing and any other
+     * result is passed as a single element. The result is closed if it is {@link AutoCloseable}, also if the sink
+     * stops early or throws.
+     * @param cmd command to parse.
+     * @param sink sink which receives the elements.
+     * @param metadata metadata to pass into the implemented command method.
+     * @return the number of elements passed to the sink, including the one it stopped at.
+     * @throws Exception if the command can't be found, there is a parsing error, or the command, the result or the
+     *         sink throws.
+     * @throws UnsupportedOperationException if the engine doesn't support streaming, like the default
+     *         implementation.
+     *
+     * <pre>
+     *     cliEngine.parseStreaming("/export users", row -&gt; {
+     *         writer.write(row + "\n");
+     *         return true;
+     *     });
+     * </pre>
+     */
+    default long parseStreaming(String cmd, ResultSink<Object> sink, Object... metadata) throws Exception {
+        throw new UnsupportedOperationException("parseStreaming");
+    }
+
+    /***
+     * Parses the command string on the calling thread and invokes the command asynchronously on the executor of the
+     * command. If the command can't be found or there is a parsing error, the returned future fails immediately and
+     * the command is not invoked. The default implementation invokes the command with
+     * {@link #parse(String, Object...)} on the calling thread and returns a completed future.
+     * @param cmd command to parse.
+     * @param metadata metadata to pass into the implemented command method.
+     * @return future which completes with the result of the invoked command method, or exceptionally with the
+     *         exception thrown by the parser or the command method.
+     *
+     * <pre>
+     *     cliEngine.parseAsync("/add 5 4").thenAccept(result -&gt; ...);
+     * </pre>
+     */
+    default CompletableFuture<Object> parseAsync(String cmd, Object... metadata) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        try {
+            future.complete(parse(cmd, metadata));
+        } catch (InvocationTargetException e) {
+            future.completeExceptionally(e.getCause() != null ? e.getCause() : e);
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /***
+     * Parses and invokes all commands one after another. A failing command does not stop the batch, its exception
+     * is returned in its result instead.
+     * @param cmds commands to parse.
+     * @param metadata metadata to pass into every implemented command method.
+     * @return one result per command, in the order of the commands.
+     */
+    default List<CommandResult> parseAll(List<String> cmds, Object... metadata) {
+        List<CommandResult> results = new ArrayList<>(cmds.size());
+        for (int i = 0; i < cmds.size(); i++) {
+            String cmd = cmds.get(i);
+            try {
+                results.add(CommandResult.success(i + 1, cmd, parse(cmd, metadata)));
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                results.add(CommandResult.failure(i + 1, cmd, cause instanceof Exception ? (Exception) cause : e));
+            } catch (Exception e) {
+                results.add(CommandResult.failure(i + 1, cmd, e));
+            }
+        }
+        return results;
+    }
+
+    /***
+     * Parses and invokes all commands like {@link #parseAll(List, Object...)}, but splits the batch into chunks which
+     * run in parallel on the pool. The commands have to be safe to be invoked concurrently. The default
+     * implementation runs the whole batch as a single task on the pool.
+     * @param cmds commands to parse.
+     * @param pool pool to run the chunks on.
+     * @param metadata metadata to pass into every implemented command method.
+     * @return one result per command, in the order of the commands.
+     */
+    default List<CommandResult> parseAllParallel(List<String> cmds, ForkJoinPool pool, Object... metadata) {
+        return pool.submit(() -> parseAll(cmds, metadata)).join();
+    }
+
     /***
      * Lists all registered commands with their main usage description.
      * @return String with each registered command in a single line.
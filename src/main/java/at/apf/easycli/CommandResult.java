@@ -0,0 +1,111 @@
+package at.apf.easycli;
+
+/***
+ * Result of a single command of a batch: either the value returned by the command method or the exception which
+ * occurred while parsing or invoking the command.
+ */
+public final class CommandResult {
+
+    private final int line;
+    private final long offset;
+    private final String command;
+    private final Object value;
+    private final Exception error;
+
+    private CommandResult(int line, long offset, String command, Object value, Exception error) {
+        this.line = line;
+        this.offset = offset;
+        this.command = command;
+        this.value = value;
+        this.error = error;
+    }
+
+    /***
+     * @param line line of the command.
+     * @param command the command string.
+     * @param value the value returned by the command method.
+     * @return a successful result.
+     */
+    public static CommandResult success(int line, String command, Object value) {
+        return new CommandResult(line, -1, command, value, null);
+    }
+
+    /***
+     * Creates the result of a command of a script, which is identified by its position instead of its string.
+     * @param line line of the command.
+     * @param offset byte offset of the command in the script.
+     * @param value the value returned by the command method.
+     * @return a successful result.
+     */
+    public static CommandResult success(int line, long offset, Object value) {
+        return new CommandResult(line, offset, null, value, null);
+    }
+
+    /***
+     * @param line line of the command.
+     * @param command the command string.
+     * @param error the exception thrown while parsing or by the command method.
+     * @return a failed result.
+     */
+    public static CommandResult failure(int line, String command, Exception error) {
+        return new CommandResult(line, -1, command, null, error);
+    }
+
+    /***
+     * Creates the result of a command of a script, which is identified by its position instead of its string.
+     * @param line line of the command.
+     * @param offset byte offset of the command in the script.
+     * @param error the exception thrown while parsing or by the command method.
+     * @return a failed result.
+     */
+    public static CommandResult failure(int line, long offset, Exception error) {
+        return new CommandResult(line, offset, null, null, error);
+    }
+
+    /***
+     * @return the 1-based line of the command in the batch.
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /***
+     * @return the byte offset of the command in its script, or -1 if the result is not of a script.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /***
+     * @return the command string, or null if the result is of a script, see {@link #getOffset()}.
+     */
+    public String getCommand() {
+        return command;
+    }
+
+    /***
+     * @return true if the command was invoked without an exception.
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /***
+     * @return the value returned by the command method, or null if it failed.
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /***
+     * @return the exception thrown while parsing or by the command method itself, or null if it succeeded.
+     */
+    public Exception getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return line + ": " + (isSuccess() ? String.valueOf(value) : String.valueOf(error));
+    }
+}
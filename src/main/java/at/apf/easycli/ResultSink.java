@@ -0,0 +1,18 @@
+package at.apf.easycli;
+
+/***
+ * Receives the elements of a command result one by one, see
+ * {@link CliEngine#parseStreaming(String, ResultSink, Object...)}. The next element is only produced after the sink
+ * accepted the previous one, so a slow sink slows down the command instead of letting the elements pile up.
+ * @param <T> type of the elements.
+ */
+@FunctionalInterface
+public interface ResultSink<T> {
+
+    /***
+     * @param element the next element of the result.
+     * @return true to receive the next element, false to stop. The result is closed in both cases when it ends.
+     * @throws Exception to stop with an exception, which is thrown by the parse call.
+     */
+    boolean accept(T element) throws Exception;
+}
@@ -0,0 +1,20 @@
+package at.apf.easycli.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/***
+ * Defines alternative names of an enum constant, which are accepted as
+ * arguments in addition to the name of the constant. Like the names, the
+ * aliases are case insensitive.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Alias {
+    /***
+     * @return The alternative names of the enum constant.
+     */
+    String[] value();
+}
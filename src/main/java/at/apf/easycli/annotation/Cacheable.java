@@ -0,0 +1,40 @@
+package at.apf.easycli.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Marks a @{@link Command} method whose result only depends on its arguments. The engine caches the results by the
+ * parsed arguments and invokes the method only if there is no cached result for them. Results are cached per
+ * registered object, exceptions are never cached. Methods which return a result that can only be consumed once,
+ * i.e. an {@link java.util.Iterator} or an {@link AutoCloseable} like a {@link java.util.stream.Stream}, can't be
+ * cached. Neither can methods with a @{@link Piped} parameter, whose value differs in every pipeline.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cacheable {
+
+    /***
+     * @return maximum number of cached results. The least recently used result is evicted if it is exceeded.
+     */
+    int maxSize() default 256;
+
+    /***
+     * @return time after which a cached result expires, or 0 if it never expires.
+     */
+    long expireAfter() default 0;
+
+    /***
+     * @return unit of {@link #expireAfter()}.
+     */
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /***
+     * @return true if the @{@link Meta} parameters are part of the cache key. By default they are ignored, so
+     *         all callers share the cached results.
+     */
+    boolean includeMeta() default false;
+}
@@ -16,4 +16,10 @@ public @interface Command {
      * @return Command name to register in a {@link at.apf.easycli.CliEngine}.
      */
     String value();
+
+    /***
+     * @return Name of the executor registered in the engine on which the command runs when it is parsed
+     *         asynchronously. If empty, the engine's default executor is used.
+     */
+    String executor() default "";
 }
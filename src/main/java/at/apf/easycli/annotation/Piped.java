@@ -0,0 +1,18 @@
+package at.apf.easycli.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/***
+ * Receives the result of the previous command of a pipeline (e.g. "/list users | /filter active | /count"). The
+ * result is passed as it is, without converting it to a string. A parameter of type {@link java.util.Iterator},
+ * {@link Iterable}, {@link java.util.stream.Stream} or {@link java.util.Collection} also accepts the results of the
+ * other ones, so stages can stream their elements to the next stage. A command can have at most one @Piped
+ * parameter, it is missing if the command is not run in a pipeline and can be combined with @{@link Optional}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface Piped {
+}
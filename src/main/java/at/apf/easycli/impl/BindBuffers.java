@@ -0,0 +1,80 @@
+package at.apf.easycli.impl;
+
+/***
+ * Buffers used while binding a command string to the parameters of a command. A single instance can be reused for
+ * many commands, but not by several threads at once.
+ */
+final class BindBuffers {
+
+    /***
+     * Value of {@link #getPiped()} if the command is not a later stage of a pipeline.
+     */
+    static final Object NOTHING_PIPED = new Object();
+
+    private final Tokens tokens = new Tokens();
+    private int[] arguments = new int[16];
+    private long[] primitives = new long[8];
+    private Object[] objects = new Object[8];
+    private long tokenized;
+    private Object piped = NOTHING_PIPED;
+
+    Tokens tokens() {
+        return tokens;
+    }
+
+    /***
+     * @param size the minimum size.
+     * @return an array to store the indices of the positional arguments.
+     */
+    int[] arguments(int size) {
+        if (arguments.length < size) {
+            arguments = new int[Math.max(size, arguments.length << 1)];
+        }
+        return arguments;
+    }
+
+    /***
+     * @param size the minimum size.
+     * @return an array to store the converted primitive arguments of a {@link SpecializedBinder}.
+     */
+    long[] primitives(int size) {
+        if (primitives.length < size) {
+            primitives = new long[Math.max(size, primitives.length << 1)];
+        }
+        return primitives;
+    }
+
+    /***
+     * @param size the minimum size.
+     * @return an array to store the other converted arguments of a {@link SpecializedBinder}.
+     */
+    Object[] objects(int size) {
+        if (objects.length < size) {
+            objects = new Object[Math.max(size, objects.length << 1)];
+        }
+        return objects;
+    }
+
+    /***
+     * @return the System.nanoTime() at which the last measured command was tokenized.
+     */
+    long getTokenized() {
+        return tokenized;
+    }
+
+    void setTokenized(long tokenized) {
+        this.tokenized = tokenized;
+    }
+
+    /***
+     * @return the result of the previous stage of the pipeline the command is bound for, or
+     *         {@link #NOTHING_PIPED}.
+     */
+    Object getPiped() {
+        return piped;
+    }
+
+    void setPiped(Object piped) {
+        this.piped = piped;
+    }
+}
@@ -2,9 +2,8 @@ package at.apf.easycli.impl;
 
 import at.apf.easycli.exception.MalformedCommandException;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /***
  * Splits command strings into its parts.
@@ -18,17 +17,103 @@ public class CliSplitter {
      * @return List which contains all parts.
      */
     public List<String> split(String cmd) {
-        List<String> parts = new LinkedList<>();
-        int lastPos = 0;
-        boolean inString = false;
+        return tokenize(cmd).toList();
+    }
 
-        for (int i = 0; i < cmd.length(); i++) {
-            if (cmd.charAt(i) == '"' && (i == 0 || cmd.charAt(i - 1) != '\\')) {
+    /***
+     * Splits a pipeline into its commands. The commands are separated by a | which stands alone between spaces,
+     * a | within quotes or within a part (e.g. "a|b") does not separate commands.
+     * @param cmd the pipeline.
+     * @return the commands of the pipeline, or a list which only contains the cmd if it is no pipeline.
+     */
+    public List<String> splitPipeline(String cmd) {
+        List<CharSequence> stages = pipelineStages(cmd);
+        List<String> commands = new ArrayList<>(stages.size());
+        for (CharSequence stage: stages) {
+            commands.add(stage.toString());
+        }
+        return commands;
+    }
+
+    /***
+     * Splits a pipeline like {@link #splitPipeline(String)}, but returns the commands as views of the cmd, so a
+     * command in a mapped buffer is not copied.
+     * @param cmd the pipeline.
+     * @return the commands of the pipeline, or a list which only contains the cmd if it is no pipeline.
+     */
+    List<CharSequence> pipelineStages(CharSequence cmd) {
+        List<CharSequence> commands = new ArrayList<>(1);
+        int length = cmd.length();
+        int start = 0;
+        boolean inString = false;
+        for (int i = 0; i < length; i++) {
+            char c = cmd.charAt(i);
+            if (c == '"' && (i == 0 || cmd.charAt(i - 1) != '\\')) {
                 inString = !inString;
+            } else if (c == '|' && !inString && (i == 0 || cmd.charAt(i - 1) == ' ')
+                    && (i + 1 == length || cmd.charAt(i + 1) == ' ')) {
+                commands.add(trim(cmd, start, i));
+                start = i + 1;
             }
-            if (!inString && cmd.charAt(i) == ' ') {
-                parts.add(cmd.substring(lastPos, i));
+        }
+        if (start == 0) {
+            commands.add(cmd);
+        } else {
+            commands.add(trim(cmd, start, length));
+        }
+        return commands;
+    }
+
+    /***
+     * @return the part between start and end without leading and trailing whitespace, like {@link String#trim()}.
+     */
+    private static CharSequence trim(CharSequence cmd, int start, int end) {
+        while (start < end && cmd.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && cmd.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return cmd.subSequence(start, end);
+    }
+
+    /***
+     * Splits the given cmd in a single scan with the same rules as {@link #split(String)}, but only records the
+     * offsets of the parts instead of copying them.
+     * @param cmd command to split into parts.
+     * @return the offsets of all parts.
+     */
+    public Tokens tokenize(CharSequence cmd) {
+        Tokens tokens = new Tokens();
+        tokenize(cmd, 0, tokens);
+        return tokens;
+    }
+
+    /***
+     * Splits the given cmd starting at offset from into the given tokens.
+     * @param cmd command to split into parts.
+     * @param from offset of the first character to split.
+     * @param tokens tokens instance to reuse. It gets reset before.
+     */
+    void tokenize(CharSequence cmd, int from, Tokens tokens) {
+        tokens.reset(cmd);
+        int length = cmd.length();
+        int lastPos = from;
+        boolean inString = false;
+        boolean escaped = false;
+
+        for (int i = from; i < length; i++) {
+            char c = cmd.charAt(i);
+            if (c == '"') {
+                if (i == 0 || cmd.charAt(i - 1) != '\\') {
+                    inString = !inString;
+                } else {
+                    escaped = true;
+                }
+            } else if (c == ' ' && !inString) {
+                addPart(cmd, lastPos, i, escaped, tokens);
                 lastPos = i + 1;
+                escaped = false;
             }
         }
 
@@ -36,15 +121,22 @@ public class CliSplitter {
             throw new MalformedCommandException("Malformed string. \" is missing");
         }
 
-        parts.add(cmd.substring(lastPos));
-
-        parts = parts.stream()
-                .filter(s -> !s.isEmpty())
-                .map(s -> s.startsWith("\"") ? s.substring(1) : s)
-                .map(s -> s.endsWith("\"") ? s.substring(0, s.length() - 1) : s)
-                .map(s -> s.replace("\\\"", "\""))
-                .collect(Collectors.toList());
+        addPart(cmd, lastPos, length, escaped, tokens);
+    }
 
-        return parts;
+    /***
+     * Adds the part between start and end without its surrounding quotes, if it is not empty.
+     */
+    private void addPart(CharSequence cmd, int start, int end, boolean escaped, Tokens tokens) {
+        if (start == end) {
+            return;
+        }
+        if (cmd.charAt(start) == '"') {
+            start++;
+        }
+        if (end > start && cmd.charAt(end - 1) == '"') {
+            end--;
+        }
+        tokens.add(start, end, escaped);
     }
 }
@@ -0,0 +1,47 @@
+package at.apf.easycli.impl;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/***
+ * Factory for executors to run commands on with {@link EasyEngine#parseAsync(String, Object...)}.
+ */
+public final class CommandExecutors {
+
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutorFactory();
+
+    private CommandExecutors() {
+    }
+
+    /***
+     * @return true if the running JDK supports virtual threads.
+     */
+    public static boolean isVirtualThreadSupported() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    /***
+     * Creates an executor which starts a new virtual thread for each command, so commands blocking on I/O don't
+     * occupy a platform thread. On JDKs without virtual threads a cached thread pool is returned instead.
+     * @return the new executor. It has to be shut down by the caller.
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        if (NEW_VIRTUAL_THREAD_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // fall through to the platform threads
+            }
+        }
+        return Executors.newCachedThreadPool();
+    }
+
+    private static Method findVirtualThreadExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package at.apf.easycli.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/***
+ * Trie of the registered command names. It resolves the command of an input by scanning only its leading
+ * characters, so the lookup cost does not depend on the length of the input. Command names may consist of several
+ * words (e.g. "/repo add"), the input may separate the words by more than one space.
+ * @param <V> type of the values stored for each command.
+ */
+final class CommandIndex<V> {
+
+    /***
+     * Result of a successful lookup.
+     * @param <V> type of the value.
+     */
+    static final class Match<V> {
+        private final String command;
+        private final V value;
+        private final int end;
+
+        private Match(String command, V value, int end) {
+            this.command = command;
+            this.value = value;
+            this.end = end;
+        }
+
+        /***
+         * @return the registered name of the matched command.
+         */
+        String getCommand() {
+            return command;
+        }
+
+        V getValue() {
+            return value;
+        }
+
+        /***
+         * @return the offset in the input right after the command, where the arguments start.
+         */
+        int getEnd() {
+            return end;
+        }
+    }
+
+    private static final class Node<V> {
+        private char[] keys = new char[0];
+        private Node<V>[] children = newArray(0);
+        private String command;
+        private V value;
+
+        private Node<V> child(char c) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node<V> addChild(char c) {
+            Node<V> child = child(c);
+            if (child == null) {
+                child = new Node<>();
+                char[] newKeys = new char[keys.length + 1];
+                System.arraycopy(keys, 0, newKeys, 0, keys.length);
+                newKeys[keys.length] = c;
+                Node<V>[] newChildren = newArray(children.length + 1);
+                System.arraycopy(children, 0, newChildren, 0, children.length);
+                newChildren[children.length] = child;
+                keys = newKeys;
+                children = newChildren;
+            }
+            return child;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> Node<V>[] newArray(int size) {
+            return (Node<V>[]) new Node<?>[size];
+        }
+    }
+
+    private final Node<V> root = new Node<>();
+    private int size;
+
+    /***
+     * Adds a command to the index.
+     * @param command name of the command.
+     * @param value value stored for the command.
+     * @return the value which was stored for the command before, or null.
+     */
+    V put(String command, V value) {
+        Node<V> node = root;
+        for (int i = 0; i < command.length(); i++) {
+            node = node.addChild(command.charAt(i));
+        }
+        V old = node.value;
+        if (old == null) {
+            size++;
+        }
+        node.command = command;
+        node.value = value;
+        return old;
+    }
+
+    /***
+     * @return the number of commands in the index.
+     */
+    int size() {
+        return size;
+    }
+
+    /***
+     * Resolves the longest registered command the input starts with. Leading spaces are skipped. A command only
+     * matches if it is followed by a space or the end of the input. The command may be enclosed in double quotes
+     * (e.g. "/cmd" arg), then the quotes have to enclose exactly the command.
+     * @param input the command input.
+     * @param abbreviations if true, the last word of a command may be abbreviated by a prefix which matches only
+     *                      this command. An abbreviation wins over a shorter exact match.
+     * @return the match or null if there is none.
+     */
+    Match<V> lookup(CharSequence input, boolean abbreviations) {
+        int length = input.length();
+        int i = skipSpaces(input, 0);
+        if (i < length && input.charAt(i) == '"') {
+            return lookupQuoted(input, i, abbreviations);
+        }
+        Node<V> node = root;
+        Node<V> best = null;
+        int bestEnd = -1;
+        Node<V> abbreviated = null;
+        int abbreviatedEnd = -1;
+
+        while (true) {
+            if (i == length || input.charAt(i) == ' ') {
+                if (node.value != null) {
+                    best = node;
+                    bestEnd = i;
+                } else if (abbreviations && node != root) {
+                    Node<V> unique = uniqueInWord(node);
+                    if (unique != null) {
+                        abbreviated = unique;
+                        abbreviatedEnd = i;
+                    }
+                }
+            }
+            if (i == length) {
+                break;
+            }
+            char c = input.charAt(i);
+            Node<V> next = node.child(c);
+            if (next == null) {
+                break;
+            }
+            node = next;
+            i = c == ' ' ? skipSpaces(input, i + 1) : i + 1;
+        }
+
+        if (abbreviated != null && abbreviatedEnd > bestEnd) {
+            return new Match<>(abbreviated.command, abbreviated.value, abbreviatedEnd);
+        }
+        return best == null ? null : new Match<>(best.command, best.value, bestEnd);
+    }
+
+    private Match<V> lookupQuoted(CharSequence input, int quote, boolean abbreviations) {
+        int close = quote + 1;
+        while (close < input.length() && input.charAt(close) != '"') {
+            close++;
+        }
+        if (close == input.length() || (close + 1 < input.length() && input.charAt(close + 1) != ' ')) {
+            return null;
+        }
+        CharSequence quoted = input.subSequence(quote + 1, close);
+        Match<V> match = lookup(quoted, abbreviations);
+        if (match == null || match.end != quoted.length()) {
+            return null;
+        }
+        return new Match<>(match.command, match.value, close + 1);
+    }
+
+    /***
+     * Collects registered commands which start like the input, to suggest them if the input does not match. At least
+     * two and at least half of the characters of the first word have to match.
+     * @param input the command input.
+     * @param max maximum number of candidates.
+     * @return names of the candidates.
+     */
+    List<String> candidates(CharSequence input, int max) {
+        int length = input.length();
+        int start = skipSpaces(input, 0);
+        int i = start;
+        Node<V> node = root;
+        while (i < length) {
+            char c = input.charAt(i);
+            Node<V> next = node.child(c);
+            if (next == null) {
+                break;
+            }
+            node = next;
+            i = c == ' ' ? skipSpaces(input, i + 1) : i + 1;
+        }
+        // only suggest commands which share a reasonable part with the input, not just the leading slash
+        int matched = i - start;
+        List<String> candidates = new ArrayList<>();
+        if (matched >= 2 && matched * 2 >= head(input).length()) {
+            collect(node, candidates, max);
+        }
+        return candidates;
+    }
+
+    /***
+     * @return the name of the first command of the input, i.e. all characters up to the first space.
+     */
+    static String head(CharSequence input) {
+        int start = skipSpaces(input, 0);
+        int end = start;
+        while (end < input.length() && input.charAt(end) != ' ') {
+            end++;
+        }
+        return input.subSequence(start, end).toString();
+    }
+
+    /***
+     * Searches the only command which is reachable from the node without leaving the current word.
+     * @return the node of the command or null if there is none or more than one.
+     */
+    private Node<V> uniqueInWord(Node<V> node) {
+        List<Node<V>> found = new ArrayList<>(2);
+        collectInWord(node, found);
+        return found.size() == 1 ? found.get(0) : null;
+    }
+
+    private void collectInWord(Node<V> node, List<Node<V>> found) {
+        if (found.size() > 1) {
+            return;
+        }
+        if (node.value != null) {
+            found.add(node);
+        }
+        for (int i = 0; i < node.keys.length; i++) {
+            if (node.keys[i] != ' ') {
+                collectInWord(node.children[i], found);
+            }
+        }
+    }
+
+    private void collect(Node<V> node, List<String> candidates, int max) {
+        if (candidates.size() >= max) {
+            return;
+        }
+        if (node.value != null) {
+            candidates.add(node.command);
+        }
+        for (Node<V> child: node.children) {
+            collect(child, candidates, max);
+        }
+    }
+
+    private static int skipSpaces(CharSequence input, int i) {
+        while (i < input.length() && input.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,20 @@
+package at.apf.easycli.impl;
+
+import java.lang.reflect.InvocationTargetException;
+
+/***
+ * Invokes a registered command method on a target object. The invoker doesn't hold the target, so the same invoker
+ * can be shared by all objects of the class, e.g. by the engines of a {@link CommandSet}.
+ */
+interface CommandInvoker {
+
+    /***
+     * Invokes the command method with the already parsed parameter values.
+     * @param target object the command method gets invoked on. Ignored for static methods.
+     * @param paramValues parameter values in the order of the method parameters.
+     * @return the result of the command method.
+     * @throws InvocationTargetException if the command method itself throws.
+     * @throws IllegalAccessException if the command method can't be accessed.
+     */
+    Object invoke(Object target, Object[] paramValues) throws InvocationTargetException, IllegalAccessException;
+}
@@ -0,0 +1,79 @@
+package at.apf.easycli.impl;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/***
+ * Reads commands line by line from a {@link Reader}. A command continues on the next line as long as a quoted string
+ * is open, so arguments may contain line breaks. Blank lines are skipped. The reader uses a fixed char buffer and
+ * reuses its line buffer, so the memory does not grow with the length of the input.
+ */
+final class CommandLineReader {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder command = new StringBuilder();
+    private int pos;
+    private int limit;
+    private int currentLine = 1;
+    private int commandLine;
+
+    CommandLineReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /***
+     * Reads the next command.
+     * @return the next command or null if the end of the input is reached. At the end of the input an unclosed
+     *         quoted string ends the command, so it fails to parse.
+     * @throws IOException if the reader fails.
+     */
+    String next() throws IOException {
+        command.setLength(0);
+        boolean inString = false;
+        boolean blank = true;
+        commandLine = currentLine;
+        while (true) {
+            if (pos == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                pos = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return blank ? null : command.toString();
+                }
+            }
+            char c = buffer[pos++];
+            if (c == '\n') {
+                currentLine++;
+                if (!inString) {
+                    if (!blank) {
+                        return command.toString();
+                    }
+                    // skip blank lines
+                    command.setLength(0);
+                    commandLine = currentLine;
+                    continue;
+                }
+            } else if (c == '\r') {
+                continue;
+            } else if (c == '"') {
+                if (command.length() == 0 || command.charAt(command.length() - 1) != '\\') {
+                    inString = !inString;
+                }
+            }
+            if (c != ' ' && c != '\t' && c != '\n') {
+                blank = false;
+            }
+            command.append(c);
+        }
+    }
+
+    /***
+     * @return the line the last command returned by {@link #next()} started at, 1-based.
+     */
+    int line() {
+        return commandLine;
+    }
+}
@@ -0,0 +1,542 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.annotation.Cacheable;
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.annotation.DefaultValue;
+import at.apf.easycli.annotation.Flag;
+import at.apf.easycli.annotation.Meta;
+import at.apf.easycli.annotation.Optional;
+import at.apf.easycli.annotation.Piped;
+import at.apf.easycli.annotation.Usage;
+import at.apf.easycli.exception.MalformedMethodException;
+import at.apf.easycli.spi.CachePolicy;
+import at.apf.easycli.spi.CommandDescriptor;
+import at.apf.easycli.spi.GeneratedDispatcher;
+import at.apf.easycli.spi.ParameterDescriptor;
+import at.apf.easycli.util.TypeConverter;
+import at.apf.easycli.util.TypeParser;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/***
+ * Immutable, precompiled description of a @{@link Command} annotated method. It is built once when the method gets
+ * registered, so parsing a command string only has to walk the flat slot array instead of re-reading annotations.
+ */
+final class CommandPlan {
+
+    /***
+     * Kind of a single parameter slot of a command method.
+     */
+    enum SlotKind {
+        /** Gets filled with one of the metadata objects passed into the parse call. */
+        META,
+        /** Boolean flag which is set by -x or --alternative. */
+        FLAG,
+        /** Single positional argument. */
+        ARGUMENT,
+        /** Trailing array which consumes all remaining positional arguments. */
+        ARRAY,
+        /** Trailing List, Set or Collection which consumes all remaining positional arguments. */
+        COLLECTION,
+        /** Gets filled with the result of the previous command of a pipeline. */
+        PIPED
+    }
+
+    /***
+     * Precompiled information about a single parameter of the command method.
+     */
+    static final class Slot {
+        private final SlotKind kind;
+        private final String name;
+        private final Class<?> type;
+        private final Class<?> componentType;
+        private final boolean optional;
+        private final Object missingValue;
+        private final char flag;
+        private final String alternative;
+        private final int flagIndex;
+        private final Class<?> converterType;
+        private final TypeConverter<?> converter;
+        private final boolean builtInConverter;
+
+        private Slot(SlotKind kind, String name, Class<?> type, Class<?> componentType, boolean optional,
+                     Object missingValue, char flag, String alternative, int flagIndex, Class<?> converterType,
+                     TypeConverter<?> converter, boolean builtInConverter) {
+            this.kind = kind;
+            this.name = name;
+            this.type = type;
+            this.componentType = componentType;
+            this.optional = optional;
+            this.missingValue = missingValue;
+            this.flag = flag;
+            this.alternative = alternative;
+            this.flagIndex = flagIndex;
+            this.converterType = converterType;
+            this.converter = converter;
+            this.builtInConverter = builtInConverter;
+        }
+
+        SlotKind getKind() {
+            return kind;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Class<?> getType() {
+            return type;
+        }
+
+        /***
+         * @return the component type for {@link SlotKind#ARRAY} slots, the element type for
+         *         {@link SlotKind#COLLECTION} slots, otherwise null.
+         */
+        Class<?> getComponentType() {
+            return componentType;
+        }
+
+        /***
+         * @return true if the slot may be missing in the command (@{@link Optional} or @{@link DefaultValue}).
+         */
+        boolean isOptional() {
+            return optional;
+        }
+
+        /***
+         * @return the already parsed value which is used if the slot is optional and missing in the command.
+         */
+        Object getMissingValue() {
+            return missingValue;
+        }
+
+        char getFlag() {
+            return flag;
+        }
+
+        /***
+         * @return the long name of the flag or an empty string if there is none.
+         */
+        String getAlternative() {
+            return alternative;
+        }
+
+        /***
+         * @return the bit of the flag in the set flags, see {@link CommandPlan#flagIndex(char)} and
+         *         {@link CommandPlan#flagIndex(String)}, or -1 if the slot is not a flag.
+         */
+        int getFlagIndex() {
+            return flagIndex;
+        }
+
+        /***
+         * @return the converter for the arguments of {@link SlotKind#ARGUMENT} slots and for the elements of
+         *         {@link SlotKind#ARRAY} and {@link SlotKind#COLLECTION} slots, otherwise null.
+         */
+        TypeConverter<?> getConverter() {
+            return converter;
+        }
+
+        /***
+         * @return true if the converter is the built-in one of its type, so primitive arguments may be parsed
+         *         without it. False if a converter was registered for the type.
+         */
+        boolean isBuiltInConverter() {
+            return builtInConverter;
+        }
+
+        /***
+         * Resolves the converter of the slot by another type parser than the one it was compiled with.
+         */
+        private TypeConverter<?> converter(TypeParser tp) {
+            TypeConverter<?> resolved = tp.converterFor(converterType);
+            if (type == java.util.Optional.class) {
+                return str -> java.util.Optional.ofNullable(resolved.convert(str));
+            }
+            return resolved;
+        }
+    }
+
+    /***
+     * Maximum number of flags of a single command, so the set flags of a command fit into a long.
+     */
+    static final int MAX_FLAGS = 64;
+
+    private final String command;
+    private final String executor;
+    private final String description;
+    private final CachePolicy cachePolicy;
+    private final Method method;
+    private final Slot[] slots;
+    private final int argumentCount;
+    private final boolean piped;
+    private final TypeParser typeParser;
+    private final byte[] asciiFlags = new byte[128];
+    private final Map<String, Integer> flagNames = new HashMap<>();
+    private volatile String usage;
+
+    private CommandPlan(String command, String executor, String description, CachePolicy cachePolicy, Method method,
+                        Slot[] slots, int argumentCount, boolean piped, TypeParser typeParser) {
+        this.command = command;
+        this.executor = executor;
+        this.description = description;
+        this.cachePolicy = cachePolicy;
+        this.method = method;
+        this.slots = slots;
+        this.argumentCount = argumentCount;
+        this.piped = piped;
+        this.typeParser = typeParser;
+        Arrays.fill(asciiFlags, (byte) -1);
+        for (Slot slot: slots) {
+            if (slot.getKind() == SlotKind.FLAG) {
+                // a flag can be set by its character or its alternative, either with - or with --
+                addFlagName(String.valueOf(slot.getFlag()), slot.getFlagIndex());
+                if (!slot.getAlternative().isEmpty()) {
+                    addFlagName(slot.getAlternative(), slot.getFlagIndex());
+                }
+            }
+        }
+    }
+
+    private void addFlagName(String name, int flagIndex) {
+        flagNames.putIfAbsent(name, flagIndex);
+        if (name.length() == 1 && name.charAt(0) < asciiFlags.length && asciiFlags[name.charAt(0)] < 0) {
+            asciiFlags[name.charAt(0)] = (byte) flagIndex;
+        }
+    }
+
+    /***
+     * Validates the @{@link Command} annotated method and compiles it into a plan.
+     * @param method the command method.
+     * @param tp type parser used to validate the parameter types and to parse the default values.
+     * @return the compiled plan.
+     * @throws MalformedMethodException if the method is not a well-formed command.
+     */
+    static CommandPlan compile(Method method, TypeParser tp) {
+        Parameter[] parameters = method.getParameters();
+        ParameterDescriptor[] descriptors = new ParameterDescriptor[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            descriptors[i] = ParameterDescriptor.of(parameters[i]);
+        }
+        Command commandAnno = method.getAnnotation(Command.class);
+        Usage usageAnno = method.getAnnotation(Usage.class);
+        Cacheable cacheable = method.getAnnotation(Cacheable.class);
+        if (cacheable != null && isSingleUse(method.getReturnType())) {
+            throw new MalformedMethodException("Command '" + commandAnno.value() + "' returns a "
+                    + method.getReturnType().getSimpleName() + ", which can only be consumed once and can't be cached");
+        }
+        CommandPlan plan = compile(new CommandDescriptor(commandAnno.value(), commandAnno.executor(), null,
+                usageAnno != null ? usageAnno.value() : null, CachePolicy.of(cacheable), descriptors), method, tp);
+        method.setAccessible(true);
+        return plan;
+    }
+
+    /***
+     * @param type the return type of a command method.
+     * @return true if a result of the type can only be consumed once, like a Stream, an Iterator or a Reader, so
+     *         it must not be handed out by a result cache again.
+     */
+    static boolean isSingleUse(Class<?> type) {
+        return Iterator.class.isAssignableFrom(type) || AutoCloseable.class.isAssignableFrom(type);
+    }
+
+    /***
+     * Validates the described command and compiles it into a plan.
+     * @param descriptor the command, e.g. of a {@link GeneratedDispatcher}.
+     * @param method the command method or null if the command is not invoked by reflection. In this case the
+     *               descriptor has to contain the usage text.
+     * @param tp type parser used to validate the parameter types and to parse the default values.
+     * @return the compiled plan.
+     * @throws MalformedMethodException if the command is not well-formed.
+     */
+    static CommandPlan compile(CommandDescriptor descriptor, Method method, TypeParser tp) {
+        // Constraints for arguments:
+        //   - Array at the end
+        //   - Only one array
+        //   - Optionals at the end
+        List<ParameterDescriptor> parameters = descriptor.getParameters();
+        Slot[] slots = new Slot[parameters.size()];
+        int argumentCount = 0;
+        int flagCount = 0;
+        boolean hasOptionals = false;
+        boolean hasArray = false;
+        boolean hasPiped = false;
+        for (int i = 0; i < slots.length; i++) {
+            ParameterDescriptor par = parameters.get(i);
+            boolean isOptional = par.isOptional() || par.getDefaultValue() != null;
+
+            if (par.isPiped()) {
+                if (hasPiped || par.isMeta() || par.isFlag() || par.getDefaultValue() != null) {
+                    throw new MalformedMethodException("Only one @Piped parameter without @Meta, @Flag and "
+                            + "@DefaultValue is allowed");
+                }
+                if (par.getType().isPrimitive()) {
+                    throw new MalformedMethodException("@Piped parameter '" + par.getName()
+                            + "' must not be primitive");
+                }
+                hasPiped = true;
+                slots[i] = new Slot(SlotKind.PIPED, par.getName(), par.getType(), null, par.isOptional(),
+                        missingValue(par, tp, null), '\0', "", -1, null, null, false);
+                continue;
+            }
+
+            if (par.isMeta()) {
+                slots[i] = new Slot(SlotKind.META, par.getName(), par.getType(), null, isOptional,
+                        missingValue(par, tp, null), '\0', "", -1, null, null, false);
+                continue;
+            }
+
+            if (TypeParser.isCollectionType(par.getType()) || par.getType().equals(java.util.Optional.class)) {
+                if (hasArray) {
+                    throw new MalformedMethodException("Only one Array at the end of the parameter definition is allowed.");
+                }
+                Class<?> elementType = elementType(par, tp);
+                TypeConverter<?> converter = tp.converterFor(elementType);
+                if (par.getType().equals(java.util.Optional.class)) {
+                    // an Optional parameter is optional without annotation, missing arguments are Optional.empty()
+                    TypeConverter<?> optionalConverter = str -> java.util.Optional.ofNullable(converter.convert(str));
+                    hasOptionals = true;
+                    slots[i] = new Slot(SlotKind.ARGUMENT, par.getName(), par.getType(), null, true,
+                            missingValue(par, tp, optionalConverter), '\0', "", -1, elementType,
+                            optionalConverter, false);
+                } else {
+                    if (hasOptionals && !isOptional) {
+                        throw new MalformedMethodException("Non-optional parameter at position " + i
+                                + ".Only optional parameters are allowed after an optional parameter");
+                    }
+                    if (par.getDefaultValue() != null) {
+                        throw new MalformedMethodException("Default values are not supported for parameter '"
+                                + par.getName() + "'");
+                    }
+                    hasArray = true;
+                    hasOptionals = isOptional;
+                    slots[i] = new Slot(SlotKind.COLLECTION, par.getName(), par.getType(), elementType, isOptional,
+                            missingValue(par, tp, null), '\0', "", -1, elementType, converter,
+                            !tp.hasRegisteredConverter(elementType));
+                }
+                argumentCount++;
+                continue;
+            }
+
+            boolean validType;
+            try {
+                validType = tp.isValidType(par.getType());
+            } catch (IllegalArgumentException e) {
+                throw new MalformedMethodException("Type of parameter '" + par.getName() + "' is not usable: "
+                        + e.getMessage(), e);
+            }
+            if (!validType) {
+                throw new MalformedMethodException("Only simple types and arrays are allowed");
+            }
+
+            if (par.isFlag()) {
+                if (!par.getType().equals(boolean.class)) {
+                    throw new MalformedMethodException("Flag parameter must be boolean");
+                }
+                if (flagCount == MAX_FLAGS) {
+                    throw new MalformedMethodException("Only " + MAX_FLAGS + " flags per command are allowed");
+                }
+                slots[i] = new Slot(SlotKind.FLAG, par.getName(), par.getType(), null, false, false,
+                        par.getFlag(), par.getAlternative(), flagCount++, null, null, false);
+                continue;
+            }
+
+            if (hasArray) {
+                throw new MalformedMethodException("Only one Array at the end of the parameter definition is allowed.");
+            }
+            hasArray = par.getType().isArray();
+
+            if (hasOptionals && !isOptional) {
+                throw new MalformedMethodException("Non-optional parameter at position " + i
+                        + ".Only optional parameters are allowed after an optional parameter");
+            }
+            hasOptionals = isOptional;
+
+            Class<?> converterType = hasArray ? par.getType().getComponentType() : par.getType();
+            slots[i] = new Slot(hasArray ? SlotKind.ARRAY : SlotKind.ARGUMENT, par.getName(), par.getType(),
+                    par.getType().getComponentType(), isOptional, missingValue(par, tp, null), '\0', "", -1,
+                    converterType, tp.converterFor(converterType), !tp.hasRegisteredConverter(converterType));
+            argumentCount++;
+        }
+
+        if (descriptor.getCommand().isEmpty()) {
+            throw new MalformedMethodException("Command value can not be empty");
+        }
+
+        CachePolicy cachePolicy = descriptor.getCachePolicy();
+        if (cachePolicy != null && (cachePolicy.getMaxSize() < 1 || cachePolicy.getExpireAfterNanos() < 0)) {
+            throw new MalformedMethodException("Cache of command '" + descriptor.getCommand()
+                    + "' needs a positive size and must not expire after a negative time");
+        }
+        if (cachePolicy != null && hasPiped) {
+            // the piped value would be a key which never hits again, e.g. an already consumed stream
+            throw new MalformedMethodException("Command '" + descriptor.getCommand()
+                    + "' has a @Piped parameter and can't be cached");
+        }
+
+        CommandPlan plan = new CommandPlan(descriptor.getCommand(), descriptor.getExecutor(),
+                descriptor.getDescription(), cachePolicy, method, slots, argumentCount, hasPiped, tp);
+        plan.usage = descriptor.getUsage();
+        return plan;
+    }
+
+    /***
+     * Resolves the element type of a List, Set, Collection or java.util.Optional parameter.
+     * @throws MalformedMethodException if the element type is not supported.
+     */
+    private static Class<?> elementType(ParameterDescriptor par, TypeParser tp) {
+        Class<?> elementType = par.getElementType();
+        if (elementType == null || elementType.isArray() || tp.converterFor(elementType) == null) {
+            throw new MalformedMethodException("Parameter '" + par.getName()
+                    + "' needs a simple type as type argument");
+        }
+        return elementType;
+    }
+
+    /***
+     * Evaluates the value of an optional parameter which is missing in the command.
+     * @param par the parameter.
+     * @param tp type parser to parse the @{@link DefaultValue}.
+     * @param converter converter to parse the @{@link DefaultValue} or null to use the type parser.
+     * @return the value to use if the argument is missing.
+     */
+    private static Object missingValue(ParameterDescriptor par, TypeParser tp, TypeConverter<?> converter) {
+        if (par.isOptional()) {
+            return tp.defaultValue(par.getType());
+        }
+        if (par.getDefaultValue() != null) {
+            String defaultValue = par.getDefaultValue();
+            try {
+                return converter != null ? converter.convert(defaultValue) : tp.parseType(par.getType(), defaultValue);
+            } catch (RuntimeException e) {
+                throw new MalformedMethodException("Default value '" + defaultValue + "' of parameter '"
+                        + par.getName() + "' can not be parsed", e);
+            }
+        }
+        // java.util.Optional parameters are optional without annotation
+        return tp.defaultValue(par.getType());
+    }
+
+    String getCommand() {
+        return command;
+    }
+
+    /***
+     * @return the name of the executor the command should run on asynchronously, or an empty string for the default.
+     */
+    String getExecutor() {
+        return executor;
+    }
+
+    /***
+     * @return the command method or null if the command is invoked by a {@link GeneratedDispatcher}.
+     */
+    Method getMethod() {
+        return method;
+    }
+
+    /***
+     * @return the value of the @{@link Usage} of the command method or null if there is none.
+     */
+    String getDescription() {
+        return description;
+    }
+
+    /***
+     * @return true if the command has a @{@link Piped} parameter and can be a later stage of a pipeline.
+     */
+    boolean isPiped() {
+        return piped;
+    }
+
+    /***
+     * @return the policy of the result cache or null if the command is not @{@link Cacheable}.
+     */
+    CachePolicy getCachePolicy() {
+        return cachePolicy;
+    }
+
+    Slot[] getSlots() {
+        return slots;
+    }
+
+    /***
+     * @return the number of parameters which get filled by positional arguments of the command.
+     */
+    int getArgumentCount() {
+        return argumentCount;
+    }
+
+    /***
+     * @return the type parser the converters of the slots were resolved by.
+     */
+    TypeParser getTypeParser() {
+        return typeParser;
+    }
+
+    /***
+     * Returns the converter of a slot for the engine which binds the command. The shared commands of a
+     * {@link CommandSet} are compiled once, an engine of the set with its own converters or enum prefixes resolves
+     * their converters by its own type parser.
+     * @param slot a slot of this plan.
+     * @param tp type parser of the binding engine.
+     * @return the converter of the slot.
+     */
+    TypeConverter<?> converter(Slot slot, TypeParser tp) {
+        return tp == typeParser || slot.getConverter() == null ? slot.getConverter() : slot.converter(tp);
+    }
+
+    /***
+     * @param slot a slot of this plan.
+     * @param tp type parser of the binding engine.
+     * @return true if the converter of the slot for the engine is the built-in one, see
+     *         {@link Slot#isBuiltInConverter()}.
+     */
+    boolean isBuiltInConverter(Slot slot, TypeParser tp) {
+        return tp == typeParser ? slot.isBuiltInConverter() : !tp.hasRegisteredConverter(slot.converterType);
+    }
+
+    /***
+     * Returns the usage text of the command. It is rendered on the first call and cached afterwards.
+     * @param usagePrinter printer to render the usage text.
+     * @return the usage text.
+     */
+    String usage(UsagePrinter usagePrinter) {
+        String result = usage;
+        if (result == null) {
+            // rendering twice in a race is harmless, the result is always the same
+            result = usagePrinter.commandUsage(method);
+            usage = result;
+        }
+        return result;
+    }
+
+    /***
+     * Looks up the flag which is set by the given character (-c).
+     * @param c the flag character.
+     * @return the flag index or -1 if the command has no such flag.
+     */
+    int flagIndex(char c) {
+        if (c < asciiFlags.length) {
+            return asciiFlags[c];
+        }
+        Integer index = flagNames.get(String.valueOf(c));
+        return index == null ? -1 : index;
+    }
+
+    /***
+     * Looks up the flag which is set by the given name (--name).
+     * @param name the alternative or the character of the flag.
+     * @return the flag index or -1 if the command has no such flag.
+     */
+    int flagIndex(String name) {
+        Integer index = flagNames.get(name);
+        return index == null ? -1 : index;
+    }
+}
@@ -0,0 +1,194 @@
+package at.apf.easycli.impl;
+
+import javax.management.openmbean.KeyAlreadyExistsException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/***
+ * Immutable snapshot of all registered commands. Registering or unregistering creates a new snapshot, so readers
+ * never see a partially updated command table and need no locking.
+ *
+ * <p>The snapshot of an engine of a {@link CommandSet} is an overlay over the shared snapshot of the set: it only
+ * holds the commands the engine registered itself and the shared commands it unregistered, so a change of one
+ * engine never copies the commands of the set. The own commands are looked up first and override shared commands
+ * with the same name. Abbreviations are resolved in both snapshots separately.</p>
+ */
+final class CommandRegistry {
+
+    static final CommandRegistry EMPTY = new CommandRegistry(Collections.emptyMap(), null, Collections.emptySet());
+
+    private final Map<String, RegisteredCommand> commands;
+    private final CommandIndex<RegisteredCommand> index = new CommandIndex<>();
+    private final CommandRegistry shared;
+    private final Set<RegisteredCommand> hidden;
+    private volatile String commandList;
+
+    private CommandRegistry(Map<String, RegisteredCommand> commands, CommandRegistry shared,
+                            Set<RegisteredCommand> hidden) {
+        this.commands = commands;
+        this.shared = shared;
+        this.hidden = hidden;
+        for (RegisteredCommand registered: commands.values()) {
+            index.put(registered.getCommand(), registered);
+        }
+    }
+
+    /***
+     * @param shared the snapshot of the commands of a {@link CommandSet}.
+     * @return an empty overlay over the shared snapshot for a single engine of the set.
+     */
+    static CommandRegistry overlay(CommandRegistry shared) {
+        return new CommandRegistry(Collections.emptyMap(), shared, Collections.emptySet());
+    }
+
+    /***
+     * @param added commands to add.
+     * @return a new snapshot which contains all commands of this one and the added ones. For an overlay, an added
+     *         command overrides a shared command with the same name.
+     * @throws KeyAlreadyExistsException if one of the added commands is already registered.
+     */
+    CommandRegistry with(Collection<RegisteredCommand> added) {
+        Map<String, RegisteredCommand> updated = new HashMap<>(commands);
+        for (RegisteredCommand registered: added) {
+            put(updated, registered);
+        }
+        return new CommandRegistry(Collections.unmodifiableMap(updated), shared, hidden);
+    }
+
+    /***
+     * @param removed selects the commands to remove, e.g. the ones registered with an object.
+     * @return a new snapshot without the selected commands, or this one if there are none.
+     */
+    CommandRegistry without(Predicate<RegisteredCommand> removed) {
+        Map<String, RegisteredCommand> updated = new HashMap<>(commands);
+        boolean changed = updated.values().removeIf(removed);
+        Set<RegisteredCommand> updatedHidden = hidden;
+        if (shared != null) {
+            for (RegisteredCommand registered: shared.commands()) {
+                if (!hidden.contains(registered) && removed.test(registered)) {
+                    if (updatedHidden == hidden) {
+                        updatedHidden = new HashSet<>(hidden);
+                    }
+                    updatedHidden.add(registered);
+                }
+            }
+        }
+        if (!changed && updatedHidden == hidden) {
+            return this;
+        }
+        return new CommandRegistry(changed ? Collections.unmodifiableMap(updated) : commands, shared,
+                updatedHidden == hidden ? hidden : Collections.unmodifiableSet(updatedHidden));
+    }
+
+    /***
+     * Replaces the placeholders of a lazy registration by its compiled commands.
+     * @param lazy the resolved registration.
+     * @param resolved the compiled commands of the registration.
+     * @return a new snapshot with the compiled commands, or this one if it contains no placeholders of the
+     *         registration, e.g. because they were already replaced.
+     * @throws KeyAlreadyExistsException if a compiled command which was not declared is already registered.
+     */
+    CommandRegistry resolve(LazyRegistration lazy, Collection<RegisteredCommand> resolved) {
+        Map<String, RegisteredCommand> updated = new HashMap<>(commands);
+        if (!updated.values().removeIf(r -> r.getLazy() == lazy)) {
+            return this;
+        }
+        for (RegisteredCommand registered: resolved) {
+            put(updated, registered);
+        }
+        return new CommandRegistry(Collections.unmodifiableMap(updated), shared, hidden);
+    }
+
+    private static void put(Map<String, RegisteredCommand> commands, RegisteredCommand registered) {
+        String command = registered.getCommand();
+        if (commands.putIfAbsent(command, registered) != null) {
+            throw new KeyAlreadyExistsException("Command '" + command + "' already exists");
+        }
+    }
+
+    /***
+     * @return all registered commands, for an overlay its own commands and the visible shared ones.
+     */
+    Collection<RegisteredCommand> commands() {
+        if (shared == null) {
+            return commands.values();
+        }
+        List<RegisteredCommand> all = new ArrayList<>(commands.values());
+        for (RegisteredCommand registered: shared.commands()) {
+            if (isVisible(registered)) {
+                all.add(registered);
+            }
+        }
+        return all;
+    }
+
+    /***
+     * @return true if a shared command is neither unregistered nor overridden by an own command.
+     */
+    private boolean isVisible(RegisteredCommand registered) {
+        return !hidden.contains(registered) && !commands.containsKey(registered.getCommand());
+    }
+
+    /***
+     * Returns the listing of all commands of this snapshot. It is rendered on the first call and cached afterwards,
+     * a new snapshot renders it again. Lazy registrations are listed without resolving them.
+     * @param usagePrinter printer to render the listing.
+     * @return the listing of all commands.
+     */
+    String listCommands(UsagePrinter usagePrinter) {
+        String result = commandList;
+        if (result == null) {
+            Collection<RegisteredCommand> all = commands();
+            List<String> names = new ArrayList<>(all.size());
+            List<String> descriptions = new ArrayList<>(all.size());
+            for (RegisteredCommand registered: all) {
+                names.add(registered.getCommand());
+                descriptions.add(registered.getPlan() != null ? registered.getPlan().getDescription()
+                        : registered.getLazy().description(registered.getCommand()));
+            }
+            result = usagePrinter.listCommands(names, descriptions);
+            commandList = result;
+        }
+        return result;
+    }
+
+    /***
+     * Resolves the command of the input like {@link CommandIndex#lookup(CharSequence, boolean)}. For an overlay the
+     * longer match of the own and the visible shared commands wins, the own command if both are equally long.
+     */
+    CommandIndex.Match<RegisteredCommand> lookup(CharSequence input, boolean abbreviations) {
+        CommandIndex.Match<RegisteredCommand> own = index.lookup(input, abbreviations);
+        if (shared == null) {
+            return own;
+        }
+        CommandIndex.Match<RegisteredCommand> match = shared.lookup(input, abbreviations);
+        if (match == null || !isVisible(match.getValue()) || (own != null && own.getEnd() >= match.getEnd())) {
+            return own;
+        }
+        return match;
+    }
+
+    /***
+     * @see CommandIndex#candidates(CharSequence, int)
+     */
+    List<String> candidates(CharSequence input, int max) {
+        List<String> candidates = index.candidates(input, max);
+        if (shared == null) {
+            return candidates;
+        }
+        for (String candidate: shared.candidates(input, max)) {
+            RegisteredCommand registered = shared.commands.get(candidate);
+            if (candidates.size() < max && isVisible(registered)) {
+                candidates.add(candidate);
+            }
+        }
+        return candidates;
+    }
+}
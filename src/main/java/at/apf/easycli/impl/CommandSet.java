@@ -0,0 +1,73 @@
+package at.apf.easycli.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/***
+ * Commands of several classes which are compiled once by {@link EasyEngine#compileSet(Class[])} and shared by any
+ * number of engines. The plans, invokers and the command index are immutable and don't hold the objects the commands
+ * get invoked on, so an engine of the set only needs its objects and the result caches of its
+ * @{@link at.apf.easycli.annotation.Cacheable} commands. Commands an engine registers itself override the shared
+ * commands with the same name for this engine only.
+ */
+public final class CommandSet {
+
+    private final EasyEngine template;
+    private final Class<?>[] types;
+    private final CommandRegistry registry;
+    private final RegisteredCommand[] cacheable;
+
+    /***
+     * @param template copy of the compiling engine, whose converters, executors and settings the engines of the set
+     *        start with.
+     */
+    CommandSet(EasyEngine template, Class<?>[] types, CommandRegistry registry, RegisteredCommand[] cacheable) {
+        this.template = template;
+        this.types = types;
+        this.registry = registry;
+        this.cacheable = cacheable;
+    }
+
+    /***
+     * @return the classes of the set in the order the objects of {@link #newEngine(Object...)} are expected.
+     */
+    public List<Class<?>> getTypes() {
+        return Collections.unmodifiableList(Arrays.asList(types));
+    }
+
+    /***
+     * Creates an engine which invokes the commands of the set on the given objects. The engine starts with the
+     * settings, converters, enum prefixes and executors the compiling engine had when it compiled the set, later
+     * changes of the compiling engine don't reach it. Converters, enum prefixes and executors are shared with the
+     * other engines of the set until they are changed on the new engine, which then gets its own copy. Converters
+     * and enum prefixes changed on the new engine apply to all of its commands, including the shared commands of
+     * the set. Only the default values of the shared commands keep the converters of the compiling engine.
+     * @param targets one object for every class of the set, in the order of {@link #getTypes()}.
+     * @return the new engine, which can be shared between threads like a {@link ConcurrentEasyEngine}.
+     * @throws IllegalArgumentException if the objects don't match the classes of the set.
+     */
+    public EasyEngine newEngine(Object... targets) {
+        if (targets.length != types.length) {
+            throw new IllegalArgumentException("Expected " + types.length + " objects but got " + targets.length);
+        }
+        for (int i = 0; i < types.length; i++) {
+            if (!types[i].isInstance(targets[i])) {
+                throw new IllegalArgumentException("Object " + i + " is not a " + types[i].getName());
+            }
+        }
+        return new TenantEngine(template, registry, targets.clone(), caches());
+    }
+
+    /***
+     * @return new result caches for the cacheable commands, in the order of their cache index.
+     */
+    private ResultCache[] caches() {
+        ResultCache[] caches = new ResultCache[cacheable.length];
+        for (int i = 0; i < caches.length; i++) {
+            CommandPlan plan = cacheable[i].getPlan();
+            caches[i] = new ResultCache(plan, plan.getCachePolicy());
+        }
+        return caches;
+    }
+}
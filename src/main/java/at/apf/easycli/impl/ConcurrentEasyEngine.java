@@ -0,0 +1,41 @@
+package at.apf.easycli.impl;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/***
+ * {@link EasyEngine} which can be shared between threads. {@link #parse(String, Object...)}, {@link #usage(String)}
+ * and {@link #listCommands()} work on an immutable snapshot of the registered commands and never lock, while
+ * {@link #register(Object)} and {@link #unregister(Object)} can be called at any time from any thread. They publish
+ * a new snapshot with a compare-and-set, so concurrent registrations don't get lost.
+ *
+ * Settings like {@link #setAbbreviations(boolean)} should be applied before the engine is shared.
+ */
+public class ConcurrentEasyEngine extends EasyEngine {
+
+    private final AtomicReference<CommandRegistry> registry = new AtomicReference<>(CommandRegistry.EMPTY);
+
+    /***
+     * Creates an engine which invokes the commands through method handles.
+     */
+    public ConcurrentEasyEngine() {
+        super();
+    }
+
+    /***
+     * Creates an engine which invokes the commands with the given strategy.
+     * @param invocationStrategy how the registered command methods get invoked.
+     */
+    public ConcurrentEasyEngine(InvocationStrategy invocationStrategy) {
+        super(invocationStrategy);
+    }
+
+    @Override
+    CommandRegistry registry() {
+        return registry.get();
+    }
+
+    @Override
+    boolean compareAndSetRegistry(CommandRegistry expected, CommandRegistry updated) {
+        return registry.compareAndSet(expected, updated);
+    }
+}
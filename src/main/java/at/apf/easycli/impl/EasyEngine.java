@@ -1,33 +1,40 @@
 package at.apf.easycli.impl;
 
 import at.apf.easycli.CliEngine;
+import at.apf.easycli.CommandResult;
+import at.apf.easycli.ResultSink;
+import at.apf.easycli.annotation.Cacheable;
 import at.apf.easycli.annotation.Command;
-import at.apf.easycli.annotation.DefaultValue;
-import at.apf.easycli.annotation.Flag;
-import at.apf.easycli.annotation.Meta;
-import at.apf.easycli.annotation.Optional;
+import at.apf.easycli.annotation.Piped;
 import at.apf.easycli.annotation.Usage;
 import at.apf.easycli.exception.CommandNotFoundException;
 import at.apf.easycli.exception.MalformedCommandException;
-import at.apf.easycli.exception.MalformedMethodException;
-import at.apf.easycli.util.Tuple;
+import at.apf.easycli.metrics.CacheStats;
+import at.apf.easycli.metrics.EngineMetrics;
+import at.apf.easycli.spi.CommandDescriptor;
+import at.apf.easycli.spi.GeneratedDispatcher;
+import at.apf.easycli.util.TypeConverter;
 import at.apf.easycli.util.TypeParser;
 
-import javax.management.openmbean.KeyAlreadyExistsException;
 import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 /***
  * Implementation to register command-containing objects and then parse command strings to invoke the implemented
@@ -35,62 +42,190 @@ import java.util.stream.Stream;
  */
 public class EasyEngine implements CliEngine {
 
-    private Map<String, Tuple<Method, Object>> commands = new HashMap<>();
-    private TypeParser tp = new TypeParser();
-    private CliSplitter splitter = new CliSplitter();
-    private UsagePrinter usagePrinter = new UsagePrinter();
+    private CommandRegistry registry = CommandRegistry.EMPTY;
+    private boolean abbreviations = false;
+    private boolean pipelines = false;
+    private Executor defaultExecutor = ForkJoinPool.commonPool();
+    private volatile Map<String, Executor> executors;
+    private volatile TypeParser tp;
+    private boolean sharedHelpers;
+    private final CliSplitter splitter;
+    private final UsagePrinter usagePrinter;
+    private final InvocationStrategy invocationStrategy;
+    private volatile EngineMetrics metrics;
+    private volatile ParseCache parseCache;
+
+    /***
+     * Creates an engine which invokes the commands through method handles.
+     */
+    public EasyEngine() {
+        this(InvocationStrategy.METHOD_HANDLE);
+    }
+
+    /***
+     * Creates an engine which invokes the commands with the given strategy.
+     * @param invocationStrategy how the registered command methods get invoked.
+     */
+    public EasyEngine(InvocationStrategy invocationStrategy) {
+        this.invocationStrategy = invocationStrategy;
+        this.executors = new ConcurrentHashMap<>();
+        this.tp = new TypeParser();
+        this.splitter = new CliSplitter();
+        this.usagePrinter = new UsagePrinter();
+    }
+
+    /***
+     * Creates an engine which shares the converters, executors and the invocation strategy of the template and
+     * starts with a copy of its settings. Used by the engines of a {@link CommandSet}, so they don't allocate their
+     * own helpers. The converters and executors are copied on the first change, so changes on the new engine don't
+     * affect the template and its other engines.
+     * @param template engine to take the helpers and settings from.
+     */
+    EasyEngine(EasyEngine template) {
+        this.invocationStrategy = template.invocationStrategy;
+        this.executors = template.executors;
+        this.tp = template.tp;
+        this.sharedHelpers = true;
+        this.splitter = template.splitter;
+        this.usagePrinter = template.usagePrinter;
+        this.abbreviations = template.abbreviations;
+        this.pipelines = template.pipelines;
+        this.defaultExecutor = template.defaultExecutor;
+        this.metrics = template.metrics;
+    }
 
     @Override
     public void register(Object obj) {
-        for (Method m: obj.getClass().getDeclaredMethods()) {
-            if (m.isAnnotationPresent(Command.class)) {
-                // Constraints for arguments:
-                //   - Array at the end
-                //   - Only one array
-                //   - Optionals at the end
-                Parameter[] parameters = m.getParameters();
-                boolean hasOptionals = false;
-                boolean hasArray = false;
-                for (int i = 0; i < parameters.length; i++) {
-                    Parameter par = parameters[i];
-
-                    if (par.isAnnotationPresent(Meta.class)) {
-                        continue;
-                    }
-
-                    if (!tp.isValidType(par.getType())) {
-                        throw new MalformedMethodException("Only simple types and arrays are allowed");
-                    }
+        add(compile(obj.getClass(), obj));
+    }
 
-                    if (par.isAnnotationPresent(Flag.class)) {
-                        if (!par.getType().equals(boolean.class)) {
-                            throw new MalformedMethodException("Flag parameter must be boolean");
-                        }
-                        continue;
-                    }
+    @Override
+    public <T> void register(Class<T> type, Supplier<? extends T> supplier, String... commands) {
+        GeneratedDispatcher<Object> dispatcher = dispatcher(type);
+        List<String> names = LazyRegistration.commandNames(type, dispatcher, commands);
+        LazyRegistration lazy = new LazyRegistration(type, dispatcher, supplier, names);
+        List<RegisteredCommand> placeholders = new ArrayList<>(names.size());
+        for (String name: names) {
+            placeholders.add(new RegisteredCommand(name, lazy));
+        }
+        add(placeholders);
+    }
 
-                    if (hasArray) {
-                        throw new MalformedMethodException("Only one Array at the end of the parameter definition is allowed.");
-                    }
-                    hasArray = par.getType().isArray();
+    @Override
+    public void validate() {
+        for (RegisteredCommand registered: registry().commands()) {
+            if (registered.getLazy() != null) {
+                resolve(registered.getLazy());
+            }
+        }
+    }
 
-                    boolean isOptional = par.isAnnotationPresent(Optional.class) || par.isAnnotationPresent(DefaultValue.class);
-                    if (hasOptionals && !isOptional) {
-                        throw new MalformedMethodException("Non-optional parameter at position " + i
-                                + ".Only optional parameters are allowed after an optional parameter");
-                    }
-                    hasOptionals = isOptional;
-                }
-                String command = m.getAnnotation(Command.class).value();
-                if (command.isEmpty()) {
-                    throw new MalformedMethodException("Command value can not be empty");
+    /***
+     * Compiles all commands the type implements.
+     * @param type class which declares the command methods.
+     * @param target object to invoke the commands on.
+     * @return the compiled commands.
+     */
+    List<RegisteredCommand> compile(Class<?> type, Object target) {
+        List<RegisteredCommand> compiled = new ArrayList<>();
+        GeneratedDispatcher<Object> dispatcher = dispatcher(type);
+        if (dispatcher != null) {
+            // compiled by the annotation processor, so neither the methods nor their annotations have to be read
+            List<CommandDescriptor> commands = dispatcher.commands();
+            for (int i = 0; i < commands.size(); i++) {
+                compiled.add(new RegisteredCommand(CommandPlan.compile(commands.get(i), null, tp), target,
+                        new GeneratedInvoker(dispatcher, i)));
+            }
+        } else {
+            for (Method m: type.getDeclaredMethods()) {
+                if (m.isAnnotationPresent(Command.class)) {
+                    compiled.add(new RegisteredCommand(CommandPlan.compile(m, tp), target, invocationStrategy));
                 }
-                if (commands.containsKey(command)) {
-                    throw new KeyAlreadyExistsException("Command '" + command + "' already exists");
+            }
+        }
+        return compiled;
+    }
+
+    /***
+     * Compiles the commands of the classes once into a set which can be shared by many engines. Each engine of the
+     * set only holds the objects to invoke the commands on and its own registrations, e.g. one engine per chat room
+     * which all implement the same commands:
+     * <pre>
+     *     CommandSet rooms = template.compileSet(RoomCommands.class, AdminCommands.class);
+     *     EasyEngine room = rooms.newEngine(new RoomCommands(roomId), adminCommands);
+     * </pre>
+     * The commands are compiled with the converters and the invocation strategy of this engine. The set keeps a copy
+     * of the current converters, executors and settings of this engine, which its engines start with, so later
+     * changes of this engine don't affect them.
+     * @param types classes which implement the commands.
+     * @return the compiled set.
+     * @throws at.apf.easycli.exception.MalformedMethodException if a command method is malformed.
+     * @throws javax.management.openmbean.KeyAlreadyExistsException if two classes implement the same command.
+     */
+    public CommandSet compileSet(Class<?>... types) {
+        // the set keeps its own copy, so later changes of this engine don't reach the engines of the set
+        EasyEngine snapshot = new EasyEngine(this);
+        snapshot.ownHelpers();
+        List<RegisteredCommand> shared = new ArrayList<>();
+        List<RegisteredCommand> cacheable = new ArrayList<>();
+        for (int i = 0; i < types.length; i++) {
+            for (RegisteredCommand compiled: snapshot.compile(types[i], null)) {
+                int cacheIndex = compiled.getPlan().getCachePolicy() != null ? cacheable.size() : -1;
+                RegisteredCommand registered = compiled.share(i, cacheIndex);
+                if (cacheIndex != -1) {
+                    cacheable.add(registered);
                 }
-                commands.put(command, new Tuple<>(m, obj));
+                shared.add(registered);
             }
         }
+        return new CommandSet(snapshot, types.clone(), CommandRegistry.EMPTY.with(shared),
+                cacheable.toArray(new RegisteredCommand[0]));
+    }
+
+    private GeneratedDispatcher<Object> dispatcher(Class<?> type) {
+        return invocationStrategy == InvocationStrategy.METHOD_HANDLE ? GeneratedDispatchers.find(type) : null;
+    }
+
+    private void add(List<RegisteredCommand> added) {
+        CommandRegistry current;
+        do {
+            current = registry();
+        } while (!compareAndSetRegistry(current, current.with(added)));
+    }
+
+    /***
+     * Compiles the commands of a lazy registration and replaces its placeholders.
+     */
+    private void resolve(LazyRegistration lazy) {
+        List<RegisteredCommand> resolved = lazy.resolve(this);
+        CommandRegistry current;
+        CommandRegistry updated;
+        do {
+            current = registry();
+            updated = current.resolve(lazy, resolved);
+        } while (updated != current && !compareAndSetRegistry(current, updated));
+    }
+
+    @Override
+    public void unregister(Object obj) {
+        CommandRegistry current;
+        do {
+            current = registry();
+        } while (!compareAndSetRegistry(current, current.without(r -> target(r) == obj)));
+    }
+
+    /***
+     * Removes all commands of a class: the ones registered lazily for it with
+     * {@link #register(Class, Supplier, String...)}, whether they are compiled yet or not, and the ones registered
+     * with an object of exactly this class. Does nothing if no commands of the class are registered.
+     * @param type the class of the commands.
+     */
+    public void unregister(Class<?> type) {
+        CommandRegistry current;
+        do {
+            current = registry();
+        } while (!compareAndSetRegistry(current, current.without(r -> r.getLazy() != null
+                ? r.getLazy().getType() == type : target(r).getClass() == type)));
     }
 
     @Override
@@ -100,194 +235,707 @@ public class EasyEngine implements CliEngine {
 
     @Override
     public Object parse(String cmd, Object... metadata) throws Exception {
-        List<String> parts = splitter.split(cmd);
-        List<String> flags = parts.stream() // add --flag
-                .skip(1)
-                .filter(a -> a.startsWith("--"))
-                .map(a -> a.substring(2))
-                .collect(Collectors.toList());
-        flags.addAll(parts.stream() // add -abc
-                .skip(1)
-                .filter(a -> a.startsWith("-") && !a.startsWith("--"))
-                .filter(a -> !(a.charAt(1) >= '0' && a.charAt(1) <= '9'))
-                .map(a -> a.substring(1))
-                .flatMapToInt(CharSequence::chars)
-                .mapToObj(i -> Character.toString((char) i))
-                .collect(Collectors.toList()));
-        List<String> arguments = parts.stream()
-                .skip(1)
-                .filter(a -> !a.startsWith("-") || (a.charAt(1) >= '0' && a.charAt(1) <= '9'))
-                .collect(Collectors.toList());
-        String command = parts.get(0);
-
-        if (!commands.containsKey(command)) {
-            throw new CommandNotFoundException("Command '" + command + "' not registered");
-        }
-
-        Method method = commands.get(command).getKey();
-        Parameter[] params = method.getParameters();
-        Object[] paramValues = new Object[params.length];
+        return execute(cmd, metadata, new BindBuffers());
+    }
+
+    /***
+     * Parses and invokes a command, or all commands of a pipeline if pipelines are enabled.
+     * @param cmd the command or pipeline.
+     * @param metadata the metadata objects, every command of a pipeline gets all of them.
+     * @param buffers buffers to reuse.
+     * @return the result of the command or of the last command of the pipeline.
+     * @throws InvocationTargetException if a command method throws.
+     * @throws IllegalAccessException if a command method can't be accessed.
+     */
+    Object execute(CharSequence cmd, Object[] metadata, BindBuffers buffers)
+            throws InvocationTargetException, IllegalAccessException {
+        if (pipelines) {
+            List<CharSequence> stages = splitter.pipelineStages(cmd);
+            if (stages.size() > 1) {
+                return executePipeline(stages, null, metadata, buffers);
+            }
+        }
+        return bind(cmd, metadata, buffers).invoke();
+    }
+
+    /***
+     * Invokes the stages of a pipeline one after another and passes the result of each stage to the @{@link Piped}
+     * parameter of the next one.
+     * @param first the already bound first stage, or null to bind it here.
+     */
+    private Object executePipeline(List<CharSequence> stages, Invocation first, Object[] metadata,
+                                   BindBuffers buffers) throws InvocationTargetException, IllegalAccessException {
+        Object result = null;
+        try {
+            for (int i = 0; i < stages.size(); i++) {
+                buffers.setPiped(i == 0 ? BindBuffers.NOTHING_PIPED : result);
+                Invocation invocation;
+                try {
+                    invocation = i == 0 && first != null ? first : bind(stages.get(i), metadata, buffers);
+                    if (i > 0 && !invocation.getCommand().getPlan().isPiped()) {
+                        throw new MalformedCommandException("Command '" + invocation.getCommand().getCommand()
+                                + "' has no @Piped parameter and can't be used after a |");
+                    }
+                } catch (RuntimeException e) {
+                    // the next stage never reads the result, so close it, e.g. a stream over a file
+                    closeQuietly(result, e);
+                    throw e;
+                }
+                result = invocation.invoke();
+            }
+        } finally {
+            buffers.setPiped(BindBuffers.NOTHING_PIPED);
+        }
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Object> parseAsync(String cmd, Object... metadata) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        List<CharSequence> stages;
+        Invocation invocation;
+        Executor executor;
+        try {
+            stages = pipelines ? splitter.pipelineStages(cmd) : Collections.singletonList(cmd);
+            invocation = bind(stages.get(0), metadata, new BindBuffers());
+            executor = executor(invocation.getCommand().getPlan());
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(stages.size() > 1
+                            ? executePipeline(stages, invocation, metadata, new BindBuffers())
+                            : invocation.invoke());
+                } catch (InvocationTargetException e) {
+                    future.completeExceptionally(e.getCause());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public List<CommandResult> parseAll(List<String> cmds, Object... metadata) {
+        CommandResult[] results = new CommandResult[cmds.size()];
+        parseRange(cmds, 0, cmds.size(), metadata, results);
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public List<CommandResult> parseAllParallel(List<String> cmds, ForkJoinPool pool, Object... metadata) {
+        CommandResult[] results = new CommandResult[cmds.size()];
+        pool.invoke(new BatchTask(cmds, 0, cmds.size(), metadata, results));
+        return Arrays.asList(results);
+    }
+
+    /***
+     * Parses and invokes the commands between from and to one after another with the same buffers.
+     */
+    private void parseRange(List<String> cmds, int from, int to, Object[] metadata, CommandResult[] results) {
+        BindBuffers buffers = new BindBuffers();
+        for (int i = from; i < to; i++) {
+            results[i] = parse(i + 1, cmds.get(i), metadata, buffers);
+        }
+    }
+
+    /***
+     * Parses and invokes a single command of a batch or a stream with the given buffers.
+     * @param line line of the command.
+     * @param cmd the command.
+     * @param metadata the metadata objects.
+     * @param buffers buffers to reuse.
+     * @return the result, which contains the exception if the command failed.
+     */
+    CommandResult parse(int line, String cmd, Object[] metadata, BindBuffers buffers) {
+        try {
+            return CommandResult.success(line, cmd, execute(cmd, metadata, buffers));
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            return CommandResult.failure(line, cmd, cause instanceof Exception ? (Exception) cause : e);
+        } catch (Exception e) {
+            return CommandResult.failure(line, cmd, e);
+        }
+    }
+
+    private static void closeQuietly(Object result, RuntimeException failure) {
+        try {
+            ResultStreams.close(result, failure);
+        } catch (Exception e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    @Override
+    public long parseStreaming(String cmd, ResultSink<Object> sink, Object... metadata) throws Exception {
+        return ResultStreams.drain(execute(cmd, metadata, new BindBuffers()), sink);
+    }
+
+    /***
+     * Splits a batch into ranges which get parsed in parallel.
+     */
+    private final class BatchTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private static final int THRESHOLD = 256;
+
+        private final List<String> cmds;
+        private final int from;
+        private final int to;
+        private final Object[] metadata;
+        private final CommandResult[] results;
+
+        private BatchTask(List<String> cmds, int from, int to, Object[] metadata, CommandResult[] results) {
+            this.cmds = cmds;
+            this.from = from;
+            this.to = to;
+            this.metadata = metadata;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                parseRange(cmds, from, to, metadata, results);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BatchTask(cmds, from, middle, metadata, results),
+                        new BatchTask(cmds, middle, to, metadata, results));
+            }
+        }
+    }
+
+    /***
+     * Parses the command string and binds all parameter values of the command without invoking it.
+     * @param cmd command to parse.
+     * @param metadata metadata to pass into the implemented command method.
+     * @return the invocation of the command.
+     * @throws CommandNotFoundException if the command is not registered.
+     * @throws MalformedCommandException if the arguments don't fit to the command.
+     */
+    Invocation bind(String cmd, Object... metadata) {
+        return bind(cmd, metadata, new BindBuffers());
+    }
+
+    /***
+     * Binds the command like {@link #bind(String, Object...)} but reuses the given buffers.
+     */
+    Invocation bind(CharSequence cmd, Object[] metadata, BindBuffers buffers) {
+        EngineMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return bind(cmd, metadata, buffers, false);
+        }
+        long start = System.nanoTime();
+        Invocation invocation;
+        try {
+            invocation = bind(cmd, metadata, buffers, true);
+        } catch (RuntimeException e) {
+            metrics.recordError(e);
+            throw e;
+        }
+        long tokenized = buffers.getTokenized();
+        invocation.measure(metrics, metrics.command(invocation.getCommand().getPlan().getCommand()),
+                tokenized - start, System.nanoTime() - tokenized);
+        return invocation;
+    }
+
+    private Invocation bind(CharSequence cmd, Object[] metadata, BindBuffers buffers, boolean measure) {
+        ParseCache cache = cmd instanceof String ? parseCache() : null;
+        if (cache != null) {
+            ParseCache.Entry entry = cache.get((String) cmd);
+            if (entry != null) {
+                if (measure) {
+                    buffers.setTokenized(System.nanoTime());
+                }
+                return bindCached(entry, metadata);
+            }
+        }
+
+        CommandIndex.Match<RegisteredCommand> match = lookup(cmd);
+        RegisteredCommand registered = match.getValue();
+        Tokens tokens = buffers.tokens();
+        splitter.tokenize(cmd, match.getEnd(), tokens);
+        if (measure) {
+            buffers.setTokenized(System.nanoTime());
+        }
+
+        CommandPlan plan = registered.getPlan();
+
+        // classify all parts in a single pass into set flags and positional arguments
+        long flags = 0;
+        int[] arguments = buffers.arguments(tokens.size());
+        int argumentCount = 0;
+        for (int t = 0; t < tokens.size(); t++) {
+            if (isFlag(tokens, t)) {
+                flags |= parseFlags(plan, tokens, t);
+            } else {
+                arguments[argumentCount++] = t;
+            }
+        }
+
+        TypeParser tp = this.tp;
+        SpecializedBinder binder = registered.getBinder();
+        if (binder != null && plan.getTypeParser() == tp) {
+            long[] primitives = buffers.primitives(binder.getPrimitiveCount());
+            Object[] objects = buffers.objects(binder.getObjectCount());
+            binder.bind(tokens, arguments, argumentCount, metadata.length, primitives, objects);
+            return new Invocation(registered, target(registered), primitives, objects, flags, metadata);
+        }
+
+        CommandPlan.Slot[] slots = plan.getSlots();
+        Object[] paramValues = new Object[slots.length];
 
         int cmdIndex = 0;
         int metaIndex = 0;
-        for (int i = 0; i < params.length; i++) {
-            if (handleMetaArgument(metadata, metaIndex, params[i], paramValues, i)) {
-                metaIndex++;
-                continue;
+        for (int i = 0; i < slots.length; i++) {
+            switch (slots[i].getKind()) {
+                case META:
+                    handleMetaArgument(metadata, metaIndex++, slots[i], paramValues, i);
+                    break;
+                case FLAG:
+                    paramValues[i] = (flags & (1L << slots[i].getFlagIndex())) != 0;
+                    break;
+                case PIPED:
+                    handlePipedArgument(buffers.getPiped(), plan, slots[i], paramValues, i);
+                    break;
+                default:
+                    cmdIndex = handleArgument(tokens, arguments, argumentCount, cmdIndex, plan, slots[i], tp,
+                            paramValues, i);
             }
-            if (!handleFlag(flags, params[i], paramValues, i)) {
-                cmdIndex = handleArgument(arguments, cmdIndex, params[i], paramValues, i);
+        }
+
+        if (cmdIndex != -1 && argumentCount > plan.getArgumentCount()) {
+            throw new MalformedCommandException("Too many arguments passed for command '" + plan.getCommand() + "'");
+        }
+
+        if (cache != null) {
+            cache.put((String) cmd, registered, paramValues);
+        }
+        return new Invocation(registered, target(registered), cache(registered), paramValues);
+    }
+
+    /***
+     * Creates the invocation of a cached command with the metadata of this parse call.
+     */
+    private Invocation bindCached(ParseCache.Entry entry, Object[] metadata) {
+        Object[] paramValues = entry.copyParamValues();
+        CommandPlan.Slot[] slots = entry.getCommand().getPlan().getSlots();
+        int metaIndex = 0;
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i].getKind() == CommandPlan.SlotKind.META) {
+                handleMetaArgument(metadata, metaIndex++, slots[i], paramValues, i);
             }
         }
-        int countArgumentParameters = (int) Stream.of(method.getParameters())
-                .filter(p -> !p.isAnnotationPresent(Meta.class) && !p.isAnnotationPresent(Flag.class))
-                .count();
+        return new Invocation(entry.getCommand(), target(entry.getCommand()), cache(entry.getCommand()),
+                paramValues);
+    }
 
-        if ((cmdIndex > 0 && arguments.size() > countArgumentParameters) || (countArgumentParameters == 0 && arguments.size() > 0)) {
-            throw new MalformedCommandException("Too many arguments passed for command '" + command + "'");
+    /***
+     * @return the parse cache of the current snapshot of the registered commands, or null if it is disabled.
+     */
+    private ParseCache parseCache() {
+        ParseCache cache = parseCache;
+        if (cache == null) {
+            return null;
         }
+        CommandRegistry current = registry();
+        if (cache.getRegistry() != current) {
+            // the registered commands changed, so the cached commands may be stale
+            cache = new ParseCache(cache.getMaxSize(), current);
+            parseCache = cache;
+        }
+        return cache;
+    }
 
+    /***
+     * Enables or disables the parse cache. It maps repeated command strings to their already bound arguments, so
+     * they skip the splitting and the conversion of the arguments and go straight to the invocation. Commands
+     * with specialized binders or collection parameters are not cached. When the cache is full, the least recently
+     * used command strings get evicted. Array arguments are copied for every invocation, all other converted
+     * arguments are shared by all invocations of the same command string. So commands must not modify arguments of
+     * mutable types created by custom converters while the cache is enabled. The cache is dropped whenever commands
+     * get registered or unregistered or abbreviations or enum prefixes get switched. Disabled by default.
+     * @param maxSize maximum number of cached command strings, or 0 to disable the cache.
+     * @throws IllegalArgumentException if the size is negative.
+     */
+    public void setParseCacheSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Parse cache size must not be negative");
+        }
+        parseCache = maxSize == 0 ? null : new ParseCache(maxSize, registry());
+    }
 
-        method.setAccessible(true);
-        return method.invoke(commands.get(command).getValue(), paramValues);
+    /***
+     * @return number of command strings in the parse cache, or 0 if it is disabled.
+     */
+    public int getParseCacheSize() {
+        ParseCache cache = parseCache();
+        return cache == null ? 0 : cache.size();
+    }
+
+    /***
+     * Drops all cached command strings, because the way they are bound has changed.
+     */
+    private void clearParseCache() {
+        ParseCache cache = parseCache;
+        if (cache != null) {
+            parseCache = new ParseCache(cache.getMaxSize(), registry());
+        }
     }
 
     @Override
     public String listCommands() {
-        return usagePrinter.listCommands(commands.values().stream().map(t -> t.getKey()).collect(Collectors.toList()));
+        return registry().listCommands(usagePrinter);
     }
 
     @Override
     public String usage(String cmd) {
-        List<String> parts = splitter.split(cmd);
-        String command = parts.get(0);
+        return lookup(cmd).getValue().getPlan().usage(usagePrinter);
+    }
+
+    @Override
+    public <T> void registerConverter(Class<T> type, TypeConverter<? extends T> converter) {
+        ownHelpers();
+        tp.registerConverter(type, converter);
+        // the shared commands of a set are bound with the new converter, so cached arguments may be stale
+        clearParseCache();
+    }
+
+    /***
+     * Enables or disables the recording of dispatch metrics. Every parsed command is recorded with its
+     * tokenize, bind and invoke time, and every error is counted by its exception type.
+     * @param metrics the metrics to record into, or null to disable the recording.
+     */
+    public void setMetrics(EngineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /***
+     * @return the metrics the engine records into, or null if the recording is disabled.
+     */
+    public EngineMetrics getMetrics() {
+        return metrics;
+    }
+
+    /***
+     * Returns the statistics of the result cache of a @{@link Cacheable} command.
+     * @param cmd the command.
+     * @return the statistics or null if the command is not cacheable.
+     * @throws CommandNotFoundException if the command is not registered.
+     */
+    public CacheStats cacheStats(String cmd) {
+        ResultCache cache = cache(lookup(cmd).getValue());
+        return cache == null ? null : cache.stats();
+    }
+
+    /***
+     * Removes all cached results of a @{@link Cacheable} command. Does nothing if the command is not cacheable.
+     * @param cmd the command.
+     * @throws CommandNotFoundException if the command is not registered.
+     */
+    public void invalidate(String cmd) {
+        ResultCache cache = cache(lookup(cmd).getValue());
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
 
-        if (!commands.containsKey(command)) {
-            throw new CommandNotFoundException("Command '" + command + "' not registered");
+    /***
+     * Removes the cached results of all @{@link Cacheable} commands. Lazily registered commands which are not
+     * compiled yet have no results to remove.
+     */
+    public void invalidateAll() {
+        for (RegisteredCommand registered: registry().commands()) {
+            ResultCache cache = cache(registered);
+            if (cache != null) {
+                cache.invalidate();
+            }
         }
+    }
 
-        Method method = commands.get(command).getKey();
-        return usagePrinter.commandUsage(method);
+    /***
+     * Enables or disables abbreviated commands. If enabled, the last word of a command can be abbreviated by any
+     * prefix which matches only this command (e.g. "/he" for "/help"). Disabled by default.
+     * @param abbreviations true to enable abbreviations.
+     */
+    public void setAbbreviations(boolean abbreviations) {
+        this.abbreviations = abbreviations;
+        clearParseCache();
+    }
+
+    /***
+     * Enables or disables pipelines. If enabled, commands can be chained with a | which stands alone between
+     * spaces (e.g. "/list users | /filter active | /count"), the result of each command is passed to the
+     * @{@link Piped} parameter of the next one. A quoted "|" is still a normal argument. Pipelines are supported by
+     * {@link #parse(String, Object...)}, {@link #parseAsync(String, Object...)},
+     * {@link #parseStreaming(String, ResultSink, Object...)}, the batch methods, the {@link ReplDriver} and the
+     * {@link ScriptRunner}. An asynchronous pipeline runs on the executor of its first command. Disabled by default.
+     * @param pipelines true to enable pipelines.
+     */
+    public void setPipelines(boolean pipelines) {
+        this.pipelines = pipelines;
+    }
+
+    /***
+     * Enables or disables enum arguments which are abbreviated by a prefix that matches only one constant or
+     * alias (e.g. "sto" for STONE). On an engine of a {@link CommandSet} the setting applies to the shared commands
+     * of the set as well, but not to the other engines of the set. Disabled by default.
+     * @param enumPrefixes true to enable abbreviated enum arguments.
+     */
+    public void setEnumPrefixes(boolean enumPrefixes) {
+        ownHelpers();
+        tp.setEnumPrefixes(enumPrefixes);
+        clearParseCache();
+    }
+
+    /***
+     * Registers an executor which can be referenced by {@link Command#executor()} to run commands on with
+     * {@link #parseAsync(String, Object...)}.
+     * @param name name of the executor.
+     * @param executor the executor.
+     */
+    public void registerExecutor(String name, Executor executor) {
+        ownHelpers();
+        executors.put(name, executor);
+    }
+
+    /***
+     * Replaces the converters and executors shared with the template of the engine by copies, before they get
+     * changed.
+     */
+    private synchronized void ownHelpers() {
+        if (sharedHelpers) {
+            tp = new TypeParser(tp);
+            executors = new ConcurrentHashMap<>(executors);
+            sharedHelpers = false;
+        }
+    }
+
+    /***
+     * Sets the executor for {@link #parseAsync(String, Object...)} which is used by all commands that don't name an
+     * executor. Defaults to {@link ForkJoinPool#commonPool()}.
+     * @param executor the default executor.
+     */
+    public void setDefaultExecutor(Executor executor) {
+        this.defaultExecutor = executor;
+    }
+
+    /***
+     * @return the executor the command should run on.
+     * @throws IllegalStateException if the command names an executor which is not registered.
+     */
+    private Executor executor(CommandPlan plan) {
+        if (plan.getExecutor().isEmpty()) {
+            return defaultExecutor;
+        }
+        Executor executor = executors.get(plan.getExecutor());
+        if (executor == null) {
+            throw new IllegalStateException("Executor '" + plan.getExecutor() + "' of command '"
+                    + plan.getCommand() + "' not registered");
+        }
+        return executor;
+    }
+
+    /***
+     * @return the current snapshot of the registered commands.
+     */
+    CommandRegistry registry() {
+        return registry;
+    }
+
+    /***
+     * Replaces the snapshot of the registered commands if it is still the expected one. This engine is not meant to
+     * be registered from several threads at once, so the check always succeeds.
+     * @param expected the snapshot the update is based on.
+     * @param updated the new snapshot.
+     * @return true if the snapshot was replaced.
+     */
+    boolean compareAndSetRegistry(CommandRegistry expected, CommandRegistry updated) {
+        registry = updated;
+        return true;
+    }
+
+    /***
+     * @return the object the command gets invoked on.
+     */
+    Object target(RegisteredCommand registered) {
+        return registered.getTarget();
+    }
+
+    /***
+     * @return the result cache of the command, or null if it is not cacheable.
+     */
+    ResultCache cache(RegisteredCommand registered) {
+        return registered.getCache();
     }
 
     /***
-     * if possible inserts the meta object of the metadata array at position metaIndex into the
-     * paramValues-array at position argumentPosition.
+     * Resolves the registered command the cmd starts with.
+     * @param cmd the command string.
+     * @return the match containing the registered command.
+     * @throws CommandNotFoundException if no registered command matches.
+     */
+    private CommandIndex.Match<RegisteredCommand> lookup(CharSequence cmd) {
+        CommandRegistry registry = registry();
+        CommandIndex.Match<RegisteredCommand> match = registry.lookup(cmd, abbreviations);
+        if (match != null && match.getValue().getLazy() != null) {
+            resolve(match.getValue().getLazy());
+            return lookup(cmd);
+        }
+        if (match == null) {
+            String message = "Command '" + CommandIndex.head(cmd) + "' not registered";
+            List<String> candidates = registry.candidates(cmd, 5);
+            if (!candidates.isEmpty()) {
+                message += ". Did you mean " + String.join(", ", candidates) + "?";
+            }
+            throw new CommandNotFoundException(message);
+        }
+        return match;
+    }
+
+    /***
+     * Inserts the meta object of the metadata array at position metaIndex into the paramValues-array at position
+     * argumentPosition.
      * @param metadata array of all metadata objects for the command.
      * @param metaIndex position which metadata object of the metadata array is used.
-     * @param par parameter definition which will be filled.
+     * @param slot meta slot which will be filled.
      * @param paramValues the array where the metadata object value gets inserted.
      * @param argumentPosition the position where the metadata object should be inserted in the paramValues-array.
-     * @return true if par was a Meta parameter, otherwise false
      */
-    private boolean handleMetaArgument(Object[] metadata, int metaIndex, Parameter par, Object[] paramValues, int argumentPosition) {
-        if (!par.isAnnotationPresent(Meta.class)) {
-            return false;
+    private void handleMetaArgument(Object[] metadata, int metaIndex, CommandPlan.Slot slot, Object[] paramValues,
+                                    int argumentPosition) {
+        if (metaIndex < metadata.length) {
+            paramValues[argumentPosition] = metadata[metaIndex];
+        } else if (slot.isOptional()) {
+            paramValues[argumentPosition] = slot.getMissingValue();
+        } else {
+            throw new MalformedCommandException("Metadata argument '" + slot.getName() + "' is missing.");
         }
+    }
 
-        if (metaIndex >= metadata.length) {
-            if (par.isAnnotationPresent(Optional.class)) {
-                paramValues[argumentPosition] = tp.defaultValue(par);
-            } else if (par.isAnnotationPresent(DefaultValue.class)) {
-                String defaultValue = par.getAnnotation(DefaultValue.class).value();
-                paramValues[argumentPosition] = tp.parseType(par.getType(), defaultValue);
-            } else {
-                throw new MalformedCommandException("Metadata argument '" + par.getName() + "' is missing.");
-            }
+    /***
+     * Inserts the result of the previous stage of a pipeline into the paramValues-array at position
+     * argumentPosition.
+     * @param piped the result of the previous stage or {@link BindBuffers#NOTHING_PIPED}.
+     * @param plan plan of the command.
+     * @param slot piped slot which will be filled.
+     * @param paramValues the array where the piped value gets inserted.
+     * @param argumentPosition the position where the piped value should be inserted in the paramValues-array.
+     */
+    private void handlePipedArgument(Object piped, CommandPlan plan, CommandPlan.Slot slot, Object[] paramValues,
+                                     int argumentPosition) {
+        if (piped != BindBuffers.NOTHING_PIPED) {
+            paramValues[argumentPosition] = PipedValues.adapt(piped, slot, plan.getCommand());
+        } else if (slot.isOptional()) {
+            paramValues[argumentPosition] = slot.getMissingValue();
         } else {
-            paramValues[argumentPosition] = metadata[metaIndex];
+            throw new MalformedCommandException("Piped argument '" + slot.getName() + "' is missing, command '"
+                    + plan.getCommand() + "' has to be used after a |");
         }
+    }
 
-        return true;
+    /***
+     * Checks if the part is a flag part (-abc or --alternative). Negative numbers are no flags.
+     * @param tokens all parts of the command.
+     * @param index index of the part to check.
+     * @return true if the part sets flags.
+     */
+    private boolean isFlag(Tokens tokens, int index) {
+        if (tokens.length(index) < 2 || tokens.charAt(index, 0) != '-') {
+            return false;
+        }
+        char second = tokens.charAt(index, 1);
+        return second < '0' || second > '9';
+    }
+
+    /***
+     * Looks up the flags which are set by the flag part.
+     * @param plan plan of the command.
+     * @param tokens all parts of the command.
+     * @param index index of the flag part.
+     * @return the bits of all flags of the command which get set by the part. Unknown flags are ignored.
+     */
+    private long parseFlags(CommandPlan plan, Tokens tokens, int index) {
+        if (tokens.isEscaped(index)) {
+            String part = tokens.get(index);
+            return parseFlags(plan, part, 0, part.length());
+        }
+        return parseFlags(plan, tokens.source(), tokens.start(index), tokens.end(index));
+    }
+
+    private long parseFlags(CommandPlan plan, CharSequence part, int start, int end) {
+        long flags = 0;
+        if (part.charAt(start + 1) == '-') {
+            int flagIndex = plan.flagIndex(part.subSequence(start + 2, end).toString());
+            return flagIndex >= 0 ? 1L << flagIndex : 0;
+        }
+        for (int pos = start + 1; pos < end; pos++) {
+            int flagIndex = plan.flagIndex(part.charAt(pos));
+            if (flagIndex >= 0) {
+                flags |= 1L << flagIndex;
+            }
+        }
+        return flags;
     }
 
     /***
-     * if possible inserts the argument of the arguments-list at position cmdIndex into the paramValues-array at
-     * position argumentPosition. It parses the argument to the needed type defined in par.
-     * @param arguments list of all arguments of the command line.
+     * Inserts the argument at position cmdIndex of the arguments into the paramValues-array at position
+     * argumentPosition. It parses the argument to the needed type defined in the slot.
+     * @param tokens all parts of the command.
+     * @param arguments indices of the parts which are positional arguments.
+     * @param argumentCount number of positional arguments.
      * @param cmdIndex position which argument of the arguments list is used.
-     * @param par parameter definition which will be filled.
+     * @param plan plan of the command.
+     * @param slot argument or array slot which will be filled.
+     * @param tp type parser of this engine, which resolves the converter of the slot.
      * @param paramValues the array where the arguments parsed value gets inserted.
      * @param argumentPosition the position where the parsed argument should be inserted in the paramValues-array.
      * @return the next cmdIndex or -1 if it is finished.
      */
-    private int handleArgument(List<String> arguments, int cmdIndex, Parameter par, Object[] paramValues, int argumentPosition) {
+    private int handleArgument(Tokens tokens, int[] arguments, int argumentCount, int cmdIndex, CommandPlan plan,
+                               CommandPlan.Slot slot, TypeParser tp, Object[] paramValues, int argumentPosition) {
 
-        if (arguments.size() <= cmdIndex) {
+        if (argumentCount <= cmdIndex) {
             // Not set
-            if (par.isAnnotationPresent(Optional.class)) {
-                paramValues[argumentPosition] = tp.defaultValue(par);
-            } else if (par.isAnnotationPresent(DefaultValue.class)) {
-                String defaultValue = par.getAnnotation(DefaultValue.class).value();
-                paramValues[argumentPosition] = tp.parseType(par.getType(), defaultValue);
-            } else {
-                throw new MalformedCommandException("Argument '" + par.getName() + "' is missing.");
+            if (!slot.isOptional()) {
+                throw new MalformedCommandException("Argument '" + slot.getName() + "' is missing.");
             }
+            paramValues[argumentPosition] = slot.getMissingValue();
             return cmdIndex + 1;
         }
 
-        if (par.getType().isArray()) {
+        if (slot.getKind() == CommandPlan.SlotKind.COLLECTION) {
+            LazyArgumentList<Object> list = LazyArgumentList.of(plan.converter(slot, tp), tokens, arguments,
+                    cmdIndex, argumentCount);
+            paramValues[argumentPosition] = slot.getType().equals(Set.class) ? new LazyArgumentSet<>(list) : list;
+            return -1;
+        }
+
+        TypeConverter<?> converter = plan.converter(slot, tp);
+        if (slot.getKind() == CommandPlan.SlotKind.ARRAY) {
             // Handle array
-            Class arrayType = par.getType().getComponentType();
-            if (arrayType.equals(char.class)) {
-                char[] arr = new char[arguments.size() - cmdIndex];
-                int j = 0;
-                while (cmdIndex < arguments.size()) {
-                    arr[j] = tp.toChar(arguments.get(cmdIndex));
-                    cmdIndex++;
-                    j++;
-                }
-                paramValues[argumentPosition] = arr;
-            } else if (arrayType.equals(int.class)) {
-                int[] arr = new int[arguments.size() - cmdIndex];
-                int j = 0;
-                while (cmdIndex < arguments.size()) {
-                    arr[j] = tp.toInt(arguments.get(cmdIndex));
-                    cmdIndex++;
-                    j++;
-                }
-                paramValues[argumentPosition] = arr;
-            } else if (arrayType.equals(long.class)) {
-                long[] arr = new long[arguments.size() - cmdIndex];
-                int j = 0;
-                while (cmdIndex < arguments.size()) {
-                    arr[j] = tp.toLong(arguments.get(cmdIndex));
-                    cmdIndex++;
-                    j++;
-                }
-                paramValues[argumentPosition] = arr;
-            } else if (arrayType.equals(float.class)) {
-                float[] arr = new float[arguments.size() - cmdIndex];
-                int j = 0;
-                while (cmdIndex < arguments.size()) {
-                    arr[j] = tp.toFloat(arguments.get(cmdIndex));
-                    cmdIndex++;
-                    j++;
-                }
-                paramValues[argumentPosition] = arr;
-            } else if (arrayType.equals(double.class)) {
-                double[] arr = new double[arguments.size() - cmdIndex];
-                int j = 0;
-                while (cmdIndex < arguments.size()) {
-                    arr[j] = tp.toDouble(arguments.get(cmdIndex));
-                    cmdIndex++;
-                    j++;
-                }
-                paramValues[argumentPosition] = arr;
-            } else if (arrayType.equals(boolean.class)) {
-                boolean[] arr = new boolean[arguments.size() - cmdIndex];
-                int j = 0;
-                while (cmdIndex < arguments.size()) {
-                    arr[j] = tp.toBool(arguments.get(cmdIndex));
-                    cmdIndex++;
-                    j++;
+            Class arrayType = slot.getComponentType();
+            if (arrayType.isPrimitive() && plan.isBuiltInConverter(slot, tp)) {
+                paramValues[argumentPosition] = PrimitiveArguments.parseArray(arrayType, tokens, arguments, cmdIndex,
+                        argumentCount);
+            } else if (arrayType.isPrimitive()) {
+                // a registered converter of the primitive type
+                Object arr = Array.newInstance(arrayType, argumentCount - cmdIndex);
+                for (int j = 0; cmdIndex < argumentCount; cmdIndex++, j++) {
+                    Array.set(arr, j, converter.convert(tokens.get(arguments[cmdIndex])));
                 }
                 paramValues[argumentPosition] = arr;
             } else {
-                Object[] arr = (Object[]) Array.newInstance(arrayType, arguments.size() - cmdIndex);
+                Object[] arr = (Object[]) Array.newInstance(arrayType, argumentCount - cmdIndex);
                 int j = 0;
-                while (cmdIndex < arguments.size()) {
-                    arr[j] = tp.parseType(arrayType, arguments.get(cmdIndex));
+                while (cmdIndex < argumentCount) {
+                    arr[j] = converter.convert(tokens.get(arguments[cmdIndex]));
                     cmdIndex++;
                     j++;
                 }
@@ -296,28 +944,9 @@ public class EasyEngine implements CliEngine {
             return -1;
         }
 
-        paramValues[argumentPosition] = tp.parseType(par.getType(), arguments.get(cmdIndex));
+        paramValues[argumentPosition] = converter.convert(tokens.get(arguments[cmdIndex]));
 
         return cmdIndex + 1;
     }
 
-    /***
-     * Checks if par is a flag parameter. If yes it searches if the flag is set in the flags list and sets the
-     * paramValues[argumentPosition] true. if it is not set, it the paramValues position will be set to false.
-     * @param flags flags-list where all parsed flags are contained.
-     * @param par parameter definition which will be filled.
-     * @param paramValues the array where the arguments parsed value gets inserted.
-     * @param argumentPosition the position where the parsed argument should be inserted in the paramValues-array.
-     * @return true if par was a flag parameter, otherwise false.
-     */
-    private boolean handleFlag(List<String> flags, Parameter par, Object[] paramValues, int argumentPosition) {
-        if (!par.isAnnotationPresent(Flag.class)) {
-            return false;
-        }
-
-        Flag flagAnno = par.getAnnotation(Flag.class);
-        paramValues[argumentPosition] = flags.contains(flagAnno.alternative()) || flags.contains(flagAnno.value() + "");
-        return true;
-    }
-
 }
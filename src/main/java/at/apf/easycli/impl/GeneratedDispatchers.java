@@ -0,0 +1,43 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.spi.GeneratedDispatcher;
+
+/***
+ * Looks up the {@link GeneratedDispatcher} of a class once and caches it.
+ */
+final class GeneratedDispatchers {
+
+    private static final Object NONE = new Object();
+
+    private static final ClassValue<Object> DISPATCHERS = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(Class<?> type) {
+            String name = type.getName();
+            int packageEnd = name.lastIndexOf('.') + 1;
+            String generated = name.substring(0, packageEnd) + name.substring(packageEnd).replace('$', '_')
+                    + GeneratedDispatcher.SUFFIX;
+            try {
+                Class<?> dispatcherClass = Class.forName(generated, true, type.getClassLoader());
+                if (!GeneratedDispatcher.class.isAssignableFrom(dispatcherClass)) {
+                    return NONE;
+                }
+                return dispatcherClass.getConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return NONE;
+            }
+        }
+    };
+
+    private GeneratedDispatchers() {
+    }
+
+    /***
+     * @param type class of a registered object.
+     * @return the generated dispatcher of the class or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    static GeneratedDispatcher<Object> find(Class<?> type) {
+        Object dispatcher = DISPATCHERS.get(type);
+        return dispatcher == NONE ? null : (GeneratedDispatcher<Object>) dispatcher;
+    }
+}
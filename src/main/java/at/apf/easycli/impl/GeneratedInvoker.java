@@ -0,0 +1,28 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.spi.GeneratedDispatcher;
+
+import java.lang.reflect.InvocationTargetException;
+
+/***
+ * Invokes a command through the {@link GeneratedDispatcher} of its class, i.e. by a plain method call.
+ */
+final class GeneratedInvoker implements CommandInvoker {
+
+    private final GeneratedDispatcher<Object> dispatcher;
+    private final int command;
+
+    GeneratedInvoker(GeneratedDispatcher<Object> dispatcher, int command) {
+        this.dispatcher = dispatcher;
+        this.command = command;
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] paramValues) throws InvocationTargetException {
+        try {
+            return dispatcher.invoke(target, command, paramValues);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.metrics.CommandMetrics;
+import at.apf.easycli.metrics.EngineMetrics;
+
+import java.lang.reflect.InvocationTargetException;
+
+/***
+ * A parsed command which is ready to be invoked: the registered command, the object to invoke it on and all its
+ * parameter values. Commands with a {@link SpecializedBinder} keep their converted arguments in the buffers of the
+ * binding instead, so such an invocation has to be invoked before its buffers get reused.
+ */
+final class Invocation {
+
+    private final RegisteredCommand command;
+    private final Object target;
+    private final ResultCache cache;
+    private final Object[] paramValues;
+    private final long[] primitives;
+    private final Object[] objects;
+    private final long flags;
+    private final Object[] metadata;
+    private EngineMetrics engineMetrics;
+    private CommandMetrics metrics;
+    private long tokenizeNanos;
+    private long bindNanos;
+
+    /***
+     * Creates the invocation of a command with its parameter values.
+     * @param command the registered command.
+     * @param target object the command gets invoked on.
+     * @param cache result cache of the command, or null if it is not cacheable.
+     * @param paramValues the bound parameter values.
+     */
+    Invocation(RegisteredCommand command, Object target, ResultCache cache, Object[] paramValues) {
+        this.command = command;
+        this.target = target;
+        this.cache = cache;
+        this.paramValues = paramValues;
+        this.primitives = null;
+        this.objects = null;
+        this.flags = 0;
+        this.metadata = null;
+    }
+
+    /***
+     * Creates the invocation of a command with a {@link SpecializedBinder}.
+     */
+    Invocation(RegisteredCommand command, Object target, long[] primitives, Object[] objects, long flags,
+               Object[] metadata) {
+        this.command = command;
+        this.target = target;
+        this.cache = null;
+        this.paramValues = null;
+        this.primitives = primitives;
+        this.objects = objects;
+        this.flags = flags;
+        this.metadata = metadata;
+    }
+
+    RegisteredCommand getCommand() {
+        return command;
+    }
+
+    /***
+     * @return the parameter values, or null if the command has a {@link SpecializedBinder}.
+     */
+    Object[] getParamValues() {
+        return paramValues;
+    }
+
+    /***
+     * Invokes the command with the parameter values.
+     * @return the result of the command method.
+     * @throws InvocationTargetException if the command method itself throws.
+     * @throws IllegalAccessException if the command method can't be accessed.
+     */
+    Object invoke() throws InvocationTargetException, IllegalAccessException {
+        if (metrics == null) {
+            return call();
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = call();
+            failed = false;
+            return result;
+        } catch (InvocationTargetException e) {
+            engineMetrics.recordError(e.getCause() != null ? e.getCause() : e);
+            throw e;
+        } catch (IllegalAccessException | RuntimeException e) {
+            engineMetrics.recordError(e);
+            throw e;
+        } finally {
+            metrics.record(tokenizeNanos, bindNanos, System.nanoTime() - start, failed);
+        }
+    }
+
+    private Object call() throws InvocationTargetException, IllegalAccessException {
+        if (paramValues == null) {
+            return command.getBinder().invoke(target, primitives, objects, flags, metadata);
+        }
+        if (cache == null) {
+            return command.getInvoker().invoke(target, paramValues);
+        }
+        Object key = cache.key(paramValues);
+        Object cached = cache.get(key);
+        if (cached != null) {
+            return ResultCache.unwrap(cached);
+        }
+        Object result = command.getInvoker().invoke(target, paramValues);
+        cache.put(key, result);
+        return result;
+    }
+
+    /***
+     * Enables the recording of the invocation into the metrics.
+     * @param engineMetrics metrics which count the errors.
+     * @param metrics metrics of the command.
+     * @param tokenizeNanos time it took to resolve and split the command.
+     * @param bindNanos time it took to fill the parameter values.
+     */
+    void measure(EngineMetrics engineMetrics, CommandMetrics metrics, long tokenizeNanos, long bindNanos) {
+        this.engineMetrics = engineMetrics;
+        this.metrics = metrics;
+        this.tokenizeNanos = tokenizeNanos;
+        this.bindNanos = bindNanos;
+    }
+}
@@ -0,0 +1,27 @@
+package at.apf.easycli.impl;
+
+/***
+ * Defines how an {@link EasyEngine} invokes the registered command methods.
+ */
+public enum InvocationStrategy {
+
+    /***
+     * Binds every command method to a {@link java.lang.invoke.MethodHandle} at register time, which gets invoked with
+     * the target object of the engine. This is the default. Classes which have a
+     * {@link at.apf.easycli.spi.GeneratedDispatcher} are invoked through it instead.
+     */
+    METHOD_HANDLE,
+
+    /***
+     * Invokes the command methods with {@link java.lang.reflect.Method#invoke(Object, Object...)}. Generated
+     * dispatchers are ignored.
+     */
+    REFLECTION,
+
+    /***
+     * Composes a binder for every command at register time, which converts the arguments without boxing them and
+     * passes primitives unboxed to the command method. Commands with array, collection or piped parameters are
+     * invoked like with {@link #METHOD_HANDLE}. Generated dispatchers are ignored.
+     */
+    SPECIALIZED
+}
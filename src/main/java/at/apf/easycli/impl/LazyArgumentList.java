@@ -0,0 +1,81 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.util.TypeConverter;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/***
+ * Unmodifiable list of the trailing arguments of a command for List and Collection parameters. An element is only
+ * converted when it is read for the first time, so a handler which does not read the whole list does not pay for
+ * converting it. Consequently an invalid element only throws when it is read.
+ * @param <E> the element type.
+ */
+final class LazyArgumentList<E> extends AbstractList<E> implements RandomAccess {
+
+    private final String source;
+    private final int[] bounds;
+    private final boolean[] escaped;
+    private final TypeConverter<? extends E> converter;
+    private final Object[] values;
+
+    private LazyArgumentList(String source, int[] bounds, boolean[] escaped, TypeConverter<? extends E> converter) {
+        this.source = source;
+        this.bounds = bounds;
+        this.escaped = escaped;
+        this.converter = converter;
+        this.values = new Object[bounds.length >> 1];
+    }
+
+    /***
+     * Creates the list of the arguments from position from (inclusive) to position to (exclusive). The tokens may be
+     * reused afterwards, the list keeps its own copy of the arguments' characters.
+     * @param converter converter for the elements.
+     * @param tokens all parts of the command.
+     * @param arguments indices of the parts which are positional arguments.
+     * @param from first argument of the list.
+     * @param to position after the last argument of the list.
+     * @param <E> the element type.
+     * @return the list.
+     */
+    static <E> LazyArgumentList<E> of(TypeConverter<? extends E> converter, Tokens tokens, int[] arguments, int from,
+                                      int to) {
+        int offset = tokens.start(arguments[from]);
+        String source = tokens.source().subSequence(offset, tokens.end(arguments[to - 1])).toString();
+        int[] bounds = new int[(to - from) << 1];
+        boolean[] escaped = null;
+        for (int j = 0; j < to - from; j++) {
+            int index = arguments[from + j];
+            bounds[j << 1] = tokens.start(index) - offset;
+            bounds[(j << 1) + 1] = tokens.end(index) - offset;
+            if (tokens.isEscaped(index)) {
+                if (escaped == null) {
+                    escaped = new boolean[to - from];
+                }
+                escaped[j] = true;
+            }
+        }
+        return new LazyArgumentList<>(source, bounds, escaped, converter);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Object value = values[index];
+        if (value == null) {
+            value = converter.convert(raw(index));
+            values[index] = value;
+        }
+        return (E) value;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    private String raw(int index) {
+        String str = source.substring(bounds[index << 1], bounds[(index << 1) + 1]);
+        return escaped != null && escaped[index] ? str.replace("\\\"", "\"") : str;
+    }
+}
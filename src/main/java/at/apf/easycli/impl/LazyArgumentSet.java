@@ -0,0 +1,46 @@
+package at.apf.easycli.impl;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/***
+ * Unmodifiable set of the trailing arguments of a command for Set parameters. The arguments are only converted when
+ * the set is used for the first time. It keeps the order of the arguments.
+ * @param <E> the element type.
+ */
+final class LazyArgumentSet<E> extends AbstractSet<E> {
+
+    private final LazyArgumentList<E> arguments;
+    private volatile Set<E> elements;
+
+    LazyArgumentSet(LazyArgumentList<E> arguments) {
+        this.arguments = arguments;
+    }
+
+    private Set<E> elements() {
+        Set<E> result = elements;
+        if (result == null) {
+            result = Collections.unmodifiableSet(new LinkedHashSet<>(arguments));
+            elements = result;
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return elements().iterator();
+    }
+
+    @Override
+    public int size() {
+        return elements().size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return elements().contains(o);
+    }
+}
@@ -0,0 +1,155 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.annotation.Usage;
+import at.apf.easycli.exception.MalformedMethodException;
+import at.apf.easycli.spi.CommandDescriptor;
+import at.apf.easycli.spi.GeneratedDispatcher;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/***
+ * Commands of a class which are registered by name only. The instance is created and the commands are compiled and
+ * validated when one of them is used the first time.
+ */
+final class LazyRegistration {
+
+    private final Class<?> type;
+    private final GeneratedDispatcher<Object> dispatcher;
+    private final Supplier<?> supplier;
+    private final List<String> commands;
+    private volatile List<RegisteredCommand> resolved;
+    private volatile Map<String, String> descriptions;
+
+    /***
+     * @param type class which implements the commands.
+     * @param dispatcher the generated dispatcher of the class, or null.
+     * @param supplier creates the instance to invoke the commands on.
+     * @param commands names of the commands the class implements.
+     */
+    LazyRegistration(Class<?> type, GeneratedDispatcher<Object> dispatcher, Supplier<?> supplier,
+                     List<String> commands) {
+        this.type = type;
+        this.dispatcher = dispatcher;
+        this.supplier = supplier;
+        this.commands = commands;
+    }
+
+    Class<?> getType() {
+        return type;
+    }
+
+    /***
+     * Reads the description of a command from the generated dispatcher or the @{@link Usage} of its method, without
+     * creating the instance or compiling the command.
+     * @param command name of the command.
+     * @return the description, or null if the command has none or is not implemented by the class.
+     */
+    String description(String command) {
+        Map<String, String> result = descriptions;
+        if (result == null) {
+            result = new HashMap<>();
+            if (dispatcher != null) {
+                for (CommandDescriptor descriptor: dispatcher.commands()) {
+                    result.put(descriptor.getCommand(), descriptor.getDescription());
+                }
+            } else {
+                for (Method m: type.getDeclaredMethods()) {
+                    Command commandAnno = m.getAnnotation(Command.class);
+                    if (commandAnno != null) {
+                        Usage usageAnno = m.getAnnotation(Usage.class);
+                        result.put(commandAnno.value(), usageAnno != null ? usageAnno.value() : null);
+                    }
+                }
+            }
+            descriptions = result;
+        }
+        return result.get(command);
+    }
+
+    /***
+     * Creates the instance and compiles its commands. This happens only once, later calls return the same commands.
+     * If it fails, the next call tries again.
+     * @param engine engine which compiles the commands.
+     * @return the compiled commands.
+     * @throws MalformedMethodException if the instance is not of the registered class, one of its commands is
+     *         malformed or a declared command is not implemented by the class.
+     */
+    List<RegisteredCommand> resolve(EasyEngine engine) {
+        List<RegisteredCommand> result = resolved;
+        if (result == null) {
+            synchronized (this) {
+                result = resolved;
+                if (result == null) {
+                    result = compile(engine);
+                    resolved = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<RegisteredCommand> compile(EasyEngine engine) {
+        Object target = supplier.get();
+        if (!type.isInstance(target)) {
+            throw new MalformedMethodException("Supplier of " + type.getName() + " returned "
+                    + (target == null ? "null" : "an instance of " + target.getClass().getName()));
+        }
+        List<RegisteredCommand> compiled = engine.compile(type, target);
+        Set<String> implemented = new HashSet<>();
+        for (RegisteredCommand registered: compiled) {
+            implemented.add(registered.getCommand());
+        }
+        for (String command: commands) {
+            if (!implemented.contains(command)) {
+                throw new MalformedMethodException("Command '" + command + "' is not implemented by "
+                        + type.getName());
+            }
+        }
+        return Collections.unmodifiableList(compiled);
+    }
+
+    /***
+     * Collects the names of the commands of a class without compiling them. They are taken from the generated
+     * dispatcher if there is one, otherwise only the {@link Command} annotations are read.
+     * @param type class which implements the commands.
+     * @param dispatcher the generated dispatcher of the class, or null.
+     * @return names of the commands.
+     */
+    private static List<String> collectNames(Class<?> type, GeneratedDispatcher<Object> dispatcher) {
+        List<String> names = new ArrayList<>();
+        if (dispatcher != null) {
+            for (CommandDescriptor descriptor: dispatcher.commands()) {
+                names.add(descriptor.getCommand());
+            }
+        } else {
+            for (Method m: type.getDeclaredMethods()) {
+                Command command = m.getAnnotation(Command.class);
+                if (command != null) {
+                    names.add(command.value());
+                }
+            }
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    /***
+     * @param type class which implements the commands.
+     * @param dispatcher the generated dispatcher of the class, or null.
+     * @param declared names of the commands declared on registration, may be empty.
+     * @return the declared names of the commands, or the names collected from the class if none are declared.
+     */
+    static List<String> commandNames(Class<?> type, GeneratedDispatcher<Object> dispatcher, String[] declared) {
+        return declared.length > 0 ? Collections.unmodifiableList(Arrays.asList(declared.clone()))
+                : collectNames(type, dispatcher);
+    }
+}
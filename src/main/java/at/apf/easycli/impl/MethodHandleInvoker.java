@@ -0,0 +1,49 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.exception.MalformedMethodException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/***
+ * Invokes a command method through a {@link MethodHandle} which spreads the parameter values array into the
+ * method's parameters.
+ */
+final class MethodHandleInvoker implements CommandInvoker {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private final MethodHandle handle;
+
+    /***
+     * Creates the invoker. The method has to be accessible already.
+     * @param method command method to invoke.
+     */
+    MethodHandleInvoker(Method method) {
+        MethodHandle mh;
+        try {
+            // without the varargs collector the spreader passes a varargs array as it is
+            mh = MethodHandles.lookup().unreflect(method).asFixedArity();
+        } catch (IllegalAccessException e) {
+            throw new MalformedMethodException("Command method '" + method.getName() + "' is not accessible", e);
+        }
+        if (Modifier.isStatic(method.getModifiers())) {
+            mh = MethodHandles.dropArguments(mh, 0, Object.class);
+        }
+        this.handle = mh.asSpreader(Object[].class, method.getParameterCount()).asType(INVOKER_TYPE);
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] paramValues) throws InvocationTargetException {
+        try {
+            return (Object) handle.invokeExact(target, paramValues);
+        } catch (Throwable t) {
+            // same contract as Method.invoke so callers don't see a difference between the strategies
+            throw new InvocationTargetException(t);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package at.apf.easycli.impl;
+
+import java.lang.reflect.Array;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/***
+ * Bounded cache of bound commands keyed by the raw command string, so a repeated command skips the lookup, the
+ * splitter and the converters. A cache belongs to a single {@link CommandRegistry} snapshot and is dropped when the
+ * registered commands change.
+ *
+ * <p>The commands are spread by their hash over up to 16 segments, each of them a least-recently-used map with its
+ * own lock, so threads parsing different commands rarely wait for each other. A full segment evicts its least
+ * recently used command. Small caches have a single segment and are exactly LRU.</p>
+ */
+final class ParseCache {
+
+    /***
+     * A bound command. The values of the metadata parameters are not stored, they differ between parse calls.
+     */
+    static final class Entry {
+        private final RegisteredCommand command;
+        private final Object[] paramValues;
+
+        private Entry(RegisteredCommand command, Object[] paramValues) {
+            this.command = command;
+            this.paramValues = paramValues;
+        }
+
+        RegisteredCommand getCommand() {
+            return command;
+        }
+
+        /***
+         * @return a copy of the parameter values with copies of the array arguments, so a command which changes
+         *         its arguments doesn't change the cached ones.
+         */
+        Object[] copyParamValues() {
+            Object[] values = paramValues.clone();
+            CommandPlan.Slot[] slots = command.getPlan().getSlots();
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i].getKind() == CommandPlan.SlotKind.ARRAY && values[i] != null) {
+                    values[i] = copyArray(values[i]);
+                }
+            }
+            return values;
+        }
+    }
+
+    /***
+     * Least-recently-used map of a part of the cached commands. All access is synchronized on the segment.
+     */
+    private static final class Segment extends LinkedHashMap<String, Entry> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        private Segment(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+    /** Minimum number of commands per segment, smaller caches get fewer segments. */
+    private static final int MIN_SEGMENT_SIZE = 16;
+    private static final int MAX_SEGMENTS = 16;
+
+    private final int maxSize;
+    private final CommandRegistry registry;
+    private final Segment[] segments;
+
+    /***
+     * @param maxSize maximum number of cached commands.
+     * @param registry the snapshot the cached commands are bound against.
+     */
+    ParseCache(int maxSize, CommandRegistry registry) {
+        this.maxSize = maxSize;
+        this.registry = registry;
+        int count = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maxSize / MIN_SEGMENT_SIZE)));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // spread the remainder, so the segments hold exactly maxSize commands together
+            segments[i] = new Segment((maxSize + count - 1 - i) / count);
+        }
+    }
+
+    private Segment segment(String cmd) {
+        int hash = cmd.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    CommandRegistry getRegistry() {
+        return registry;
+    }
+
+    /***
+     * @param cmd the raw command string.
+     * @return the bound command or null if it is not cached.
+     */
+    Entry get(String cmd) {
+        Segment segment = segment(cmd);
+        synchronized (segment) {
+            return segment.get(cmd);
+        }
+    }
+
+    /***
+     * Caches a bound command. If its segment is full, the least recently used command of the segment gets evicted.
+     * Commands with a collection parameter are not cached, their elements are only converted on access. Commands
+     * with a piped parameter are not cached either, they get a different value from every pipeline.
+     * @param cmd the raw command string.
+     * @param command the registered command.
+     * @param paramValues the bound parameter values.
+     */
+    void put(String cmd, RegisteredCommand command, Object[] paramValues) {
+        CommandPlan.Slot[] slots = command.getPlan().getSlots();
+        Object[] values = paramValues.clone();
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i].getKind() == CommandPlan.SlotKind.COLLECTION
+                    || slots[i].getKind() == CommandPlan.SlotKind.PIPED) {
+                return;
+            }
+            if (slots[i].getKind() == CommandPlan.SlotKind.META) {
+                values[i] = null;
+            } else if (slots[i].getKind() == CommandPlan.SlotKind.ARRAY && values[i] != null) {
+                values[i] = copyArray(values[i]);
+            }
+        }
+        Entry entry = new Entry(command, values);
+        Segment segment = segment(cmd);
+        synchronized (segment) {
+            segment.put(cmd, entry);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment: segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private static Object copyArray(Object array) {
+        int length = Array.getLength(array);
+        Object copy = Array.newInstance(array.getClass().getComponentType(), length);
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+}
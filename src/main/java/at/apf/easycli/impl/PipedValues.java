@@ -0,0 +1,109 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.exception.MalformedCommandException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/***
+ * Adapts the result of a pipeline stage to the @{@link at.apf.easycli.annotation.Piped} parameter of the next stage.
+ * Iterators, Iterables, Streams and arrays are converted into each other without reading their elements, only
+ * Collection parameters have to collect them. A collected value is closed right away if it is
+ * {@link AutoCloseable}.
+ */
+final class PipedValues {
+
+    private PipedValues() {
+    }
+
+    /***
+     * @param value result of the previous stage.
+     * @param slot the piped slot of the next stage.
+     * @param command name of the next stage.
+     * @return the value to pass into the parameter.
+     * @throws MalformedCommandException if the value can't be passed to the parameter.
+     */
+    @SuppressWarnings("unchecked")
+    static Object adapt(Object value, CommandPlan.Slot slot, String command) {
+        Class<?> type = slot.getType();
+        if (value == null || type.isInstance(value)) {
+            return value;
+        }
+        if (type == Iterator.class) {
+            return iterator(value, slot, command);
+        }
+        if (type == Stream.class) {
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(value, slot, command),
+                    Spliterator.ORDERED), false);
+        }
+        if (type == Iterable.class) {
+            // like the stream it usually comes from, a piped Iterable can only be iterated once
+            Iterator<Object> iterator = (Iterator<Object>) iterator(value, slot, command);
+            return (Iterable<Object>) () -> iterator;
+        }
+        if (type == List.class || type == Collection.class || type == Set.class) {
+            Collection<Object> elements = type == Set.class ? new LinkedHashSet<>() : new ArrayList<>();
+            collect(value, slot, command, elements);
+            return type == Set.class ? Collections.unmodifiableSet((Set<Object>) elements)
+                    : Collections.unmodifiableList((List<Object>) elements);
+        }
+        throw mismatch(value, slot, command);
+    }
+
+    /***
+     * Collects the elements of the value and closes it afterwards if it is {@link AutoCloseable}, e.g. a stream over
+     * the lines of a file, because the next stage never sees the value itself.
+     */
+    private static void collect(Object value, CommandPlan.Slot slot, String command, Collection<Object> elements) {
+        RuntimeException failure = null;
+        try {
+            iterator(value, slot, command).forEachRemaining(elements::add);
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            try {
+                ResultStreams.close(value, failure);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not close the " + value.getClass().getSimpleName()
+                        + " piped into command '" + command + "'", e);
+            }
+        }
+    }
+
+    private static Iterator<?> iterator(Object value, CommandPlan.Slot slot, String command) {
+        if (value instanceof Iterator) {
+            return (Iterator<?>) value;
+        }
+        if (value instanceof Iterable) {
+            return ((Iterable<?>) value).iterator();
+        }
+        if (value instanceof Stream) {
+            return ((Stream<?>) value).iterator();
+        }
+        if (value instanceof Object[]) {
+            return Arrays.asList((Object[]) value).iterator();
+        }
+        if (value.getClass().isArray()) {
+            throw mismatch(value, slot, command);
+        }
+        return Collections.singletonList(value).iterator();
+    }
+
+    private static MalformedCommandException mismatch(Object value, CommandPlan.Slot slot, String command) {
+        return new MalformedCommandException("Command '" + command + "' can't receive a "
+                + value.getClass().getSimpleName() + " as '" + slot.getName() + "'");
+    }
+}
@@ -0,0 +1,134 @@
+package at.apf.easycli.impl;
+
+/***
+ * Parses trailing primitive array arguments directly from the characters of the command, without creating a String
+ * for each argument. Arguments which can not be parsed by the fast path (e.g. they overflow or contain escaped
+ * quotes) are passed to the JDK parse methods, so the results and exceptions are the same as for
+ * {@link at.apf.easycli.util.TypeParser}.
+ */
+final class PrimitiveArguments {
+
+    private PrimitiveArguments() {
+    }
+
+    /***
+     * Parses the arguments from position from (inclusive) to position to (exclusive) into a primitive array.
+     * @param componentType the primitive component type of the array.
+     * @param tokens all parts of the command.
+     * @param arguments indices of the parts which are positional arguments.
+     * @param from first argument to parse.
+     * @param to position after the last argument to parse.
+     * @return the array, or null if the type is not supported by the fast path.
+     */
+    static Object parseArray(Class<?> componentType, Tokens tokens, int[] arguments, int from, int to) {
+        if (componentType == int.class) {
+            int[] arr = new int[to - from];
+            for (int j = 0; j < arr.length; j++) {
+                arr[j] = parseInt(tokens, arguments[from + j]);
+            }
+            return arr;
+        } else if (componentType == long.class) {
+            long[] arr = new long[to - from];
+            for (int j = 0; j < arr.length; j++) {
+                arr[j] = parseLong(tokens, arguments[from + j]);
+            }
+            return arr;
+        } else if (componentType == char.class) {
+            char[] arr = new char[to - from];
+            for (int j = 0; j < arr.length; j++) {
+                arr[j] = parseChar(tokens, arguments[from + j]);
+            }
+            return arr;
+        } else if (componentType == boolean.class) {
+            boolean[] arr = new boolean[to - from];
+            for (int j = 0; j < arr.length; j++) {
+                arr[j] = parseBoolean(tokens, arguments[from + j]);
+            }
+            return arr;
+        } else if (componentType == float.class) {
+            // floating point numbers need the exact rounding of the JDK, so they still go through a String
+            float[] arr = new float[to - from];
+            for (int j = 0; j < arr.length; j++) {
+                arr[j] = Float.parseFloat(tokens.get(arguments[from + j]));
+            }
+            return arr;
+        } else if (componentType == double.class) {
+            double[] arr = new double[to - from];
+            for (int j = 0; j < arr.length; j++) {
+                arr[j] = Double.parseDouble(tokens.get(arguments[from + j]));
+            }
+            return arr;
+        }
+        return null;
+    }
+
+    static int parseInt(Tokens tokens, int index) {
+        long value = parseDecimal(tokens, index, 10);
+        if (value == Long.MIN_VALUE || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return Integer.parseInt(tokens.get(index));
+        }
+        return (int) value;
+    }
+
+    static long parseLong(Tokens tokens, int index) {
+        // 18 digits always fit into a long, longer numbers are left to the JDK
+        long value = parseDecimal(tokens, index, 18);
+        if (value == Long.MIN_VALUE) {
+            return Long.parseLong(tokens.get(index));
+        }
+        return value;
+    }
+
+    static char parseChar(Tokens tokens, int index) {
+        if (tokens.length(index) == 0 || tokens.isEscaped(index)) {
+            return tokens.get(index).toCharArray()[0];
+        }
+        return tokens.charAt(index, 0);
+    }
+
+    static boolean parseBoolean(Tokens tokens, int index) {
+        if (tokens.length(index) != 4) {
+            return false;
+        }
+        CharSequence source = tokens.source();
+        int start = tokens.start(index);
+        for (int i = 0; i < 4; i++) {
+            if (Character.toLowerCase(source.charAt(start + i)) != "true".charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /***
+     * Parses an optionally signed decimal number of at most maxDigits digits.
+     * @return the number or Long.MIN_VALUE if the part is no such number.
+     */
+    private static long parseDecimal(Tokens tokens, int index, int maxDigits) {
+        int length = tokens.length(index);
+        if (tokens.isEscaped(index) || length == 0) {
+            return Long.MIN_VALUE;
+        }
+        CharSequence source = tokens.source();
+        int pos = tokens.start(index);
+        int end = pos + length;
+        boolean negative = false;
+        char first = source.charAt(pos);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            pos++;
+        }
+        if (pos == end || end - pos > maxDigits) {
+            return Long.MIN_VALUE;
+        }
+        long value = 0;
+        for (; pos < end; pos++) {
+            char c = source.charAt(pos);
+            if (c < '0' || c > '9') {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+}
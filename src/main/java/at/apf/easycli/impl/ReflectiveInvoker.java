@@ -0,0 +1,21 @@
+package at.apf.easycli.impl;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/***
+ * Invokes a command method with {@link Method#invoke(Object, Object...)}.
+ */
+final class ReflectiveInvoker implements CommandInvoker {
+
+    private final Method method;
+
+    ReflectiveInvoker(Method method) {
+        this.method = method;
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] paramValues) throws InvocationTargetException, IllegalAccessException {
+        return method.invoke(target, paramValues);
+    }
+}
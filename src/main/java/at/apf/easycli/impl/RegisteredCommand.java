@@ -0,0 +1,148 @@
+package at.apf.easycli.impl;
+
+/***
+ * A compiled {@link CommandPlan} together with the object it was registered with, or a placeholder for a command of
+ * a {@link LazyRegistration} which is not compiled yet. Commands of a {@link CommandSet} are shared by all engines of
+ * the set and have no object, each engine passes its own one by the index of the class in the set.
+ */
+final class RegisteredCommand {
+
+    private final String command;
+    private final CommandPlan plan;
+    private final Object target;
+    private final int targetIndex;
+    private final CommandInvoker invoker;
+    private final LazyRegistration lazy;
+    private final SpecializedBinder binder;
+    private final ResultCache cache;
+    private final int cacheIndex;
+
+    RegisteredCommand(CommandPlan plan, Object target, InvocationStrategy strategy) {
+        this(plan, target, strategy == InvocationStrategy.REFLECTION
+                ? new ReflectiveInvoker(plan.getMethod())
+                : new MethodHandleInvoker(plan.getMethod()),
+                strategy == InvocationStrategy.SPECIALIZED && plan.getCachePolicy() == null
+                        ? SpecializedBinder.create(plan) : null);
+    }
+
+    RegisteredCommand(CommandPlan plan, Object target, CommandInvoker invoker) {
+        this(plan, target, invoker, null);
+    }
+
+    private RegisteredCommand(CommandPlan plan, Object target, CommandInvoker invoker, SpecializedBinder binder) {
+        this.command = plan.getCommand();
+        this.plan = plan;
+        this.target = target;
+        this.targetIndex = -1;
+        this.invoker = invoker;
+        this.lazy = null;
+        this.binder = binder;
+        this.cache = plan.getCachePolicy() != null ? new ResultCache(plan, plan.getCachePolicy()) : null;
+        this.cacheIndex = -1;
+    }
+
+    /***
+     * Creates a placeholder for a command which gets compiled on its first use.
+     * @param command name of the command.
+     * @param lazy the registration which compiles the command.
+     */
+    RegisteredCommand(String command, LazyRegistration lazy) {
+        this.command = command;
+        this.plan = null;
+        this.target = null;
+        this.targetIndex = -1;
+        this.invoker = null;
+        this.lazy = lazy;
+        this.binder = null;
+        this.cache = null;
+        this.cacheIndex = -1;
+    }
+
+    private RegisteredCommand(RegisteredCommand compiled, int targetIndex, int cacheIndex) {
+        this.command = compiled.command;
+        this.plan = compiled.plan;
+        this.target = null;
+        this.targetIndex = targetIndex;
+        this.invoker = compiled.invoker;
+        this.lazy = null;
+        this.binder = compiled.binder;
+        this.cache = null;
+        this.cacheIndex = cacheIndex;
+    }
+
+    /***
+     * Creates the command of a {@link CommandSet} from a compiled command.
+     * @param targetIndex index of the class of the command in the set.
+     * @param cacheIndex index of the result cache of the command in the engines of the set, or -1 if the command is
+     *        not cacheable.
+     * @return the shared command without object and result cache.
+     */
+    RegisteredCommand share(int targetIndex, int cacheIndex) {
+        return new RegisteredCommand(this, targetIndex, cacheIndex);
+    }
+
+    String getCommand() {
+        return command;
+    }
+
+    /***
+     * @return the registration which compiles the command, or null if the command is already compiled.
+     */
+    LazyRegistration getLazy() {
+        return lazy;
+    }
+
+    CommandPlan getPlan() {
+        return plan;
+    }
+
+    /***
+     * @return the object the command was registered with, or null if the command belongs to a {@link CommandSet}.
+     */
+    Object getTarget() {
+        return target;
+    }
+
+    /***
+     * @return the index of the class of the command in its {@link CommandSet}, or -1 if the command doesn't belong
+     *         to a set.
+     */
+    int getTargetIndex() {
+        return targetIndex;
+    }
+
+    /***
+     * @return true if the command belongs to a {@link CommandSet} and is shared by all engines of the set.
+     */
+    boolean isShared() {
+        return targetIndex >= 0;
+    }
+
+    CommandInvoker getInvoker() {
+        return invoker;
+    }
+
+    /***
+     * @return the binder which binds and invokes the command in one step, or null if the command is bound by the
+     *         generic binding.
+     */
+    SpecializedBinder getBinder() {
+        return binder;
+    }
+
+    /***
+     * @return the result cache of the command, or null if the command is not cacheable or belongs to a
+     *         {@link CommandSet}.
+     */
+    ResultCache getCache() {
+        return cache;
+    }
+
+    /***
+     * @return the index of the result cache in the engines of the {@link CommandSet}, or -1 if the command is not
+     *         cacheable or doesn't belong to a set.
+     */
+    int getCacheIndex() {
+        return cacheIndex;
+    }
+}
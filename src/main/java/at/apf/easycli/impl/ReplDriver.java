@@ -0,0 +1,84 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.CommandResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.function.Consumer;
+
+/***
+ * Feeds commands from a stream into an {@link EasyEngine}, one command per line, and passes the result of every
+ * command to a sink. A quoted string may span several lines. The commands are processed while they are read, so
+ * arbitrary large scripts or interactive input run with constant memory.
+ *
+ * <pre>
+ *   new ReplDriver(engine).run(new InputStreamReader(System.in), result -&gt; System.out.println(result));
+ * </pre>
+ */
+public final class ReplDriver {
+
+    private final EasyEngine engine;
+    private boolean stopOnError = false;
+
+    /***
+     * @param engine engine which parses and invokes the commands.
+     */
+    public ReplDriver(EasyEngine engine) {
+        this.engine = engine;
+    }
+
+    /***
+     * Defines whether the driver stops reading after the first failed command. Disabled by default, so all commands
+     * are processed and failures are only passed to the sink.
+     * @param stopOnError true to stop after the first failure.
+     */
+    public void setStopOnError(boolean stopOnError) {
+        this.stopOnError = stopOnError;
+    }
+
+    /***
+     * Reads, parses and invokes all commands of the reader. The reader is not closed.
+     * @param reader the input.
+     * @param sink receives the result of every command in order. The line of a result is the line the command
+     *             starts at.
+     * @param metadata metadata objects which are passed to every command.
+     * @return the number of processed commands.
+     * @throws IOException if the reader fails.
+     */
+    public int run(Reader reader, Consumer<CommandResult> sink, Object... metadata) throws IOException {
+        CommandLineReader lines = new CommandLineReader(reader);
+        BindBuffers buffers = new BindBuffers();
+        int count = 0;
+        String cmd;
+        while ((cmd = lines.next()) != null) {
+            CommandResult result = engine.parse(lines.line(), cmd, metadata, buffers);
+            count++;
+            sink.accept(result);
+            if (stopOnError && !result.isSuccess()) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /***
+     * Like {@link #run(Reader, Consumer, Object...)} but reads the commands from a stream in the given charset.
+     */
+    public int run(InputStream in, Charset charset, Consumer<CommandResult> sink, Object... metadata)
+            throws IOException {
+        return run(new InputStreamReader(in, charset), sink, metadata);
+    }
+
+    /***
+     * Like {@link #run(Reader, Consumer, Object...)} but reads the commands from a channel in the given charset.
+     */
+    public int run(ReadableByteChannel channel, Charset charset, Consumer<CommandResult> sink, Object... metadata)
+            throws IOException {
+        return run(Channels.newReader(channel, charset.newDecoder(), -1), sink, metadata);
+    }
+}
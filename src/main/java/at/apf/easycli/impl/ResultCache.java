@@ -0,0 +1,145 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.metrics.CacheStats;
+import at.apf.easycli.spi.CachePolicy;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/***
+ * Bounded least-recently-used cache of the results of a @{@link at.apf.easycli.annotation.Cacheable} command, keyed
+ * by the parsed parameter values.
+ */
+final class ResultCache {
+
+    private static final Object NULL = new Object();
+
+    /***
+     * Parameter values of an invocation, compared by their contents.
+     */
+    private static final class Key {
+        private final Object[] values;
+        private final int hash;
+
+        private Key(Object[] values) {
+            this.values = values;
+            this.hash = Arrays.deepHashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && hash == ((Key) o).hash && Arrays.deepEquals(values, ((Key) o).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class CachedValue {
+        private final Object result;
+        private final long created;
+
+        private CachedValue(Object result, long created) {
+            this.result = result;
+            this.created = created;
+        }
+    }
+
+    private final CommandPlan plan;
+    private final CachePolicy policy;
+    private final Map<Key, CachedValue> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    ResultCache(CommandPlan plan, CachePolicy policy) {
+        this.plan = plan;
+        this.policy = policy;
+        this.entries = new LinkedHashMap<Key, CachedValue>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedValue> eldest) {
+                if (size() > ResultCache.this.policy.getMaxSize()) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /***
+     * Creates the key of an invocation. Metadata parameters are left out unless the policy includes them.
+     * @param paramValues the parameter values of the invocation.
+     * @return the key.
+     */
+    Object key(Object[] paramValues) {
+        if (policy.isIncludeMeta()) {
+            return new Key(paramValues.clone());
+        }
+        CommandPlan.Slot[] slots = plan.getSlots();
+        Object[] values = new Object[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i].getKind() != CommandPlan.SlotKind.META) {
+                values[i] = paramValues[i];
+            }
+        }
+        return new Key(values);
+    }
+
+    /***
+     * @param key key of the invocation, see {@link #key(Object[])}.
+     * @return the cached result, {@link #NULL} for a cached null or null if nothing is cached.
+     */
+    synchronized Object get(Object key) {
+        CachedValue entry = entries.get(key);
+        if (entry != null && isExpired(entry, System.nanoTime())) {
+            entries.remove(key);
+            evictions++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.result;
+    }
+
+    synchronized void put(Object key, Object result) {
+        entries.put((Key) key, new CachedValue(result == null ? NULL : result, System.nanoTime()));
+    }
+
+    /***
+     * @param cached the value returned by {@link #get(Object)}.
+     * @return the result the value stands for.
+     */
+    static Object unwrap(Object cached) {
+        return cached == NULL ? null : cached;
+    }
+
+    /***
+     * Removes all cached results.
+     */
+    synchronized void invalidate() {
+        entries.clear();
+    }
+
+    synchronized CacheStats stats() {
+        long now = System.nanoTime();
+        for (Iterator<CachedValue> it = entries.values().iterator(); it.hasNext(); ) {
+            if (isExpired(it.next(), now)) {
+                it.remove();
+                evictions++;
+            }
+        }
+        return new CacheStats(plan.getCommand(), hits, misses, evictions, entries.size());
+    }
+
+    private boolean isExpired(CachedValue entry, long now) {
+        return policy.getExpireAfterNanos() > 0 && now - entry.created >= policy.getExpireAfterNanos();
+    }
+}
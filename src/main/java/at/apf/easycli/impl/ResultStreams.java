@@ -0,0 +1,97 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.ResultSink;
+
+import java.lang.reflect.Array;
+import java.util.Iterator;
+import java.util.stream.BaseStream;
+
+/***
+ * Passes the elements of a command result to a {@link ResultSink} one by one and closes the result afterwards.
+ */
+final class ResultStreams {
+
+    private ResultStreams() {
+    }
+
+    /***
+     * Passes the elements of the result to the sink until the result ends or the sink stops. Streams, Iterators,
+     * Iterables and arrays are passed element by element, null passes nothing and any other result is passed as a
+     * single element. The result and its iterator are closed afterwards if they are {@link AutoCloseable}, also if
+     * the sink stops early or throws.
+     * @param result the result of the command.
+     * @param sink the sink.
+     * @return the number of elements passed to the sink, including the one it stopped at.
+     * @throws Exception if the sink or the result throws.
+     */
+    static long drain(Object result, ResultSink<Object> sink) throws Exception {
+        if (result == null) {
+            return 0;
+        }
+        Iterator<?> iterator = null;
+        Exception failure = null;
+        try {
+            if (result instanceof BaseStream) {
+                iterator = ((BaseStream<?, ?>) result).iterator();
+            } else if (result instanceof Iterator) {
+                iterator = (Iterator<?>) result;
+            } else if (result instanceof Iterable) {
+                iterator = ((Iterable<?>) result).iterator();
+            } else if (result.getClass().isArray()) {
+                return drainArray(result, sink);
+            } else {
+                sink.accept(result);
+                return 1;
+            }
+            long count = 0;
+            while (iterator.hasNext()) {
+                count++;
+                if (!sink.accept(iterator.next())) {
+                    break;
+                }
+            }
+            return count;
+        } catch (Exception e) {
+            failure = e;
+            throw e;
+        } finally {
+            try {
+                if (iterator != result) {
+                    close(iterator, failure);
+                }
+            } finally {
+                close(result, failure);
+            }
+        }
+    }
+
+    private static long drainArray(Object array, ResultSink<Object> sink) throws Exception {
+        int length = Array.getLength(array);
+        for (int i = 0; i < length; i++) {
+            if (!sink.accept(Array.get(array, i))) {
+                return i + 1;
+            }
+        }
+        return length;
+    }
+
+    /***
+     * Closes the object if it is {@link AutoCloseable}.
+     * @param resource the object or null.
+     * @param failure the exception which ends the use of the object, or null.
+     * @throws Exception if closing fails and there is no failure, otherwise the exception is added to the failure
+     *         as suppressed exception.
+     */
+    static void close(Object resource, Exception failure) throws Exception {
+        if (resource instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) resource).close();
+            } catch (Exception e) {
+                if (failure == null) {
+                    throw e;
+                }
+                failure.addSuppressed(e);
+            }
+        }
+    }
+}
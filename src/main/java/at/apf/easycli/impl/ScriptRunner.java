@@ -0,0 +1,246 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.CommandResult;
+import at.apf.easycli.exception.CommandNotFoundException;
+import at.apf.easycli.exception.FlagNotFoundException;
+import at.apf.easycli.exception.MalformedCommandException;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/***
+ * Executes a script file with an {@link EasyEngine}, one command per line. The file is memory-mapped window by
+ * window and the commands are tokenized directly in the mapped bytes, so scripts of several gigabytes run without
+ * reading them into the heap. Lines which contain non-ASCII characters are decoded as UTF-8. Like for
+ * {@link ReplDriver} a quoted string may span several lines and blank lines are skipped. The commands are executed
+ * like by {@link EasyEngine#parse(String, Object...)}, including pipelines if they are enabled.
+ *
+ * <p>The results identify their command by its line and byte offset instead of its string, so the commands are never
+ * copied out of the mapped bytes. Errors of the script (unknown commands, malformed arguments) are reported with the
+ * line number of the command in their message. Every window is unmapped as soon as its commands are executed.</p>
+ */
+public final class ScriptRunner {
+
+    private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final Unmapper UNMAPPER = Unmapper.create();
+
+    private final EasyEngine engine;
+    private final int windowSize;
+    private boolean stopOnError = false;
+
+    /***
+     * @param engine engine which parses and invokes the commands.
+     */
+    public ScriptRunner(EasyEngine engine) {
+        this(engine, DEFAULT_WINDOW_SIZE);
+    }
+
+    /***
+     * @param engine engine which parses and invokes the commands.
+     * @param windowSize number of bytes which are mapped at once. A single command must fit into a window.
+     */
+    public ScriptRunner(EasyEngine engine, int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive");
+        }
+        this.engine = engine;
+        this.windowSize = windowSize;
+    }
+
+    /***
+     * Defines whether the runner stops after the first failed command. Disabled by default, so all commands are
+     * executed and failures are only passed to the sink.
+     * @param stopOnError true to stop after the first failure.
+     */
+    public void setStopOnError(boolean stopOnError) {
+        this.stopOnError = stopOnError;
+    }
+
+    /***
+     * Executes all commands of the script.
+     * @param script path of the script file.
+     * @param sink receives the result of every command in order. The line of a result is the line the command
+     *             starts at.
+     * @param metadata metadata objects which are passed to every command.
+     * @return the number of executed commands.
+     * @throws IOException if the file can not be read or a single command is longer than the window size.
+     */
+    public long run(Path script, Consumer<CommandResult> sink, Object... metadata) throws IOException {
+        try (FileChannel channel = FileChannel.open(script, StandardOpenOption.READ)) {
+            long size = channel.size();
+            BindBuffers buffers = new BindBuffers();
+            long count = 0;
+            long windowStart = 0;
+            int line = 1;
+            while (windowStart < size) {
+                int length = (int) Math.min(windowSize, size - windowStart);
+                boolean last = windowStart + length == size;
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+                try {
+                    int pos = windowStart == 0 ? skipByteOrderMark(window) : 0;
+                    int commandStart = pos;
+                    int commandLine = line;
+                    boolean inString = false;
+                    boolean blank = true;
+                    boolean ascii = true;
+                    byte previous = 0;
+                    for (; pos < length; pos++) {
+                        byte b = window.get(pos);
+                        if (b == '\n' && !inString) {
+                            if (!blank) {
+                                count++;
+                                if (!execute(window, windowStart, commandStart, pos, ascii, commandLine, metadata,
+                                        buffers, sink)) {
+                                    return count;
+                                }
+                            }
+                            line++;
+                            commandStart = pos + 1;
+                            commandLine = line;
+                            blank = true;
+                            ascii = true;
+                        } else {
+                            if (b == '\n') {
+                                line++;
+                            } else if (b == '"' && previous != '\\') {
+                                inString = !inString;
+                            } else if (b < 0) {
+                                ascii = false;
+                            }
+                            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                                blank = false;
+                            }
+                        }
+                        previous = b;
+                    }
+
+                    if (last) {
+                        if (!blank) {
+                            count++;
+                            execute(window, windowStart, commandStart, length, ascii, commandLine, metadata, buffers,
+                                    sink);
+                        }
+                        break;
+                    }
+                    if (commandStart == 0) {
+                        throw new IOException("Command at line " + commandLine + " is longer than the window size of "
+                                + windowSize + " bytes");
+                    }
+                    // the next window starts at the beginning of the incomplete command
+                    windowStart += commandStart;
+                    line = commandLine;
+                } finally {
+                    UNMAPPER.unmap(window);
+                }
+            }
+            return count;
+        }
+    }
+
+    /***
+     * Executes the command between start and end of the window.
+     * @return false if the runner should stop.
+     */
+    private boolean execute(MappedByteBuffer window, long windowStart, int start, int end, boolean ascii, int line,
+                            Object[] metadata, BindBuffers buffers, Consumer<CommandResult> sink) {
+        CharSequence cmd = command(window, start, end, ascii);
+        long offset = windowStart + start;
+        try {
+            Object value = engine.execute(cmd, metadata, buffers);
+            sink.accept(CommandResult.success(line, offset, value));
+            return true;
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            sink.accept(CommandResult.failure(line, offset, cause instanceof Exception ? (Exception) cause : e));
+        } catch (CommandNotFoundException e) {
+            sink.accept(CommandResult.failure(line, offset, new CommandNotFoundException(atLine(line, e), e)));
+        } catch (FlagNotFoundException e) {
+            sink.accept(CommandResult.failure(line, offset, new FlagNotFoundException(atLine(line, e), e)));
+        } catch (MalformedCommandException e) {
+            sink.accept(CommandResult.failure(line, offset, new MalformedCommandException(atLine(line, e), e)));
+        } catch (Exception e) {
+            sink.accept(CommandResult.failure(line, offset, e));
+        }
+        return !stopOnError;
+    }
+
+    private static String atLine(int line, Exception e) {
+        return "Line " + line + ": " + e.getMessage();
+    }
+
+    /***
+     * Creates the command of the bytes between start and end, without a trailing carriage return.
+     */
+    private static CharSequence command(MappedByteBuffer window, int start, int end, boolean ascii) {
+        if (end > start && window.get(end - 1) == '\r') {
+            end--;
+        }
+        if (ascii) {
+            return new ByteCharSequence(window, start, end);
+        }
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = window.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int skipByteOrderMark(MappedByteBuffer window) {
+        if (window.limit() >= 3 && window.get(0) == (byte) 0xEF && window.get(1) == (byte) 0xBB
+                && window.get(2) == (byte) 0xBF) {
+            return 3;
+        }
+        return 0;
+    }
+
+    /***
+     * Releases a mapped window right away instead of when the garbage collector finds it, so a long script doesn't
+     * keep gigabytes of address space mapped. Uses sun.misc.Unsafe on Java 9 and later and the cleaner of the
+     * buffer on Java 8. If neither is accessible, the windows are left to the garbage collector.
+     */
+    private interface Unmapper {
+
+        void unmap(MappedByteBuffer window);
+
+        static Unmapper create() {
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                Object unsafe = theUnsafe.get(null);
+                return window -> invokeQuietly(invokeCleaner, unsafe, window);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Java 8 has no invokeCleaner
+            }
+            try {
+                Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+                Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+                return window -> invokeQuietly(clean, invokeQuietly(cleaner, window, null), null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return window -> { };
+            }
+        }
+
+        static Object invokeQuietly(Method method, Object target, Object argument) {
+            if (target == null) {
+                return null;
+            }
+            try {
+                return argument == null ? method.invoke(target) : method.invoke(target, argument);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // the window stays mapped until the garbage collector releases it
+                return null;
+            }
+        }
+    }
+}
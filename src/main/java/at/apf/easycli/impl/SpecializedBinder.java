@@ -0,0 +1,404 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.exception.MalformedCommandException;
+import at.apf.easycli.exception.MalformedMethodException;
+import at.apf.easycli.util.TypeConverter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/***
+ * Binds the arguments of a single command without boxing them. The arguments are converted when the command gets
+ * bound, primitives are stored in a long array and all other values in an object array. At register time, a method
+ * handle is composed for the command method which reads every parameter straight from these arrays, the flags and
+ * the metadata and passes primitives unboxed to the command method, so neither the generic slot loop nor a parameter
+ * values array is needed. Only commands whose parameters are metadata, flags and single arguments can be specialized.
+ */
+final class SpecializedBinder {
+
+    /***
+     * Parameters of every reader and, after the target object, of the composed handle.
+     */
+    private static final Class<?>[] READ_PARAMETERS = {long[].class, Object[].class, long.class, Object[].class};
+
+    /***
+     * Type of the composed handle: the target object followed by the read parameters.
+     */
+    private static final MethodType INVOKE_TYPE = MethodType.methodType(Object.class, READ_PARAMETERS)
+            .insertParameterTypes(0, Object.class);
+
+    /***
+     * How a positional argument gets converted.
+     */
+    private static final byte INT = 0;
+    private static final byte LONG = 1;
+    private static final byte DOUBLE = 2;
+    private static final byte FLOAT = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte CHAR = 5;
+    private static final byte OBJECT = 6;
+
+    private final CommandPlan plan;
+    private final MethodHandle handle;
+    private final int requiredArguments;
+    private final int requiredMetadata;
+
+    // one entry per positional argument
+    private final byte[] conversions;
+    private final int[] stores;
+    private final TypeConverter<?>[] converters;
+    private final long[] missingPrimitives;
+    private final Object[] missingObjects;
+
+    private final int primitiveCount;
+    private final int objectCount;
+
+    private SpecializedBinder(CommandPlan plan, MethodHandle handle, int requiredArguments, int requiredMetadata,
+                              byte[] conversions, int[] stores, TypeConverter<?>[] converters,
+                              long[] missingPrimitives, Object[] missingObjects, int primitiveCount,
+                              int objectCount) {
+        this.plan = plan;
+        this.handle = handle;
+        this.requiredArguments = requiredArguments;
+        this.requiredMetadata = requiredMetadata;
+        this.conversions = conversions;
+        this.stores = stores;
+        this.converters = converters;
+        this.missingPrimitives = missingPrimitives;
+        this.missingObjects = missingObjects;
+        this.primitiveCount = primitiveCount;
+        this.objectCount = objectCount;
+    }
+
+    /***
+     * Composes the binder of a command.
+     * @param plan plan of the command.
+     * @return the binder or null if the command can't be specialized, e.g. because it has an array or a piped
+     *         parameter, a registered converter for a primitive parameter or is not invoked through its method.
+     */
+    static SpecializedBinder create(CommandPlan plan) {
+        Method method = plan.getMethod();
+        if (method == null) {
+            return null;
+        }
+        for (CommandPlan.Slot slot: plan.getSlots()) {
+            if (slot.getKind() == CommandPlan.SlotKind.ARRAY || slot.getKind() == CommandPlan.SlotKind.COLLECTION
+                    || slot.getKind() == CommandPlan.SlotKind.PIPED) {
+                return null;
+            }
+            if (slot.getKind() == CommandPlan.SlotKind.ARGUMENT && slot.getType().isPrimitive()
+                    && !slot.isBuiltInConverter()) {
+                // the registered converter has to be called, primitives are only parsed by the built-in ones
+                return null;
+            }
+        }
+        MethodHandle mh;
+        try {
+            mh = MethodHandles.lookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new MalformedMethodException("Command method '" + method.getName() + "' is not accessible", e);
+        }
+        if (Modifier.isStatic(method.getModifiers())) {
+            mh = MethodHandles.dropArguments(mh, 0, Object.class);
+        }
+        mh = mh.asType(mh.type().changeParameterType(0, Object.class).changeReturnType(Object.class));
+
+        CommandPlan.Slot[] slots = plan.getSlots();
+        int argumentCount = plan.getArgumentCount();
+        byte[] conversions = new byte[argumentCount];
+        int[] stores = new int[argumentCount];
+        TypeConverter<?>[] converters = new TypeConverter<?>[argumentCount];
+        long[] missingPrimitives = new long[argumentCount];
+        Object[] missingObjects = new Object[argumentCount];
+        int[] positions = new int[slots.length];
+        int requiredArguments = 0;
+        int requiredMetadata = 0;
+        int argumentIndex = 0;
+        int metaIndex = 0;
+        int primitiveCount = 0;
+        int objectCount = 0;
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i].getKind() == CommandPlan.SlotKind.META) {
+                positions[i] = metaIndex++;
+                if (!slots[i].isOptional()) {
+                    requiredMetadata = metaIndex;
+                }
+            } else if (slots[i].getKind() == CommandPlan.SlotKind.ARGUMENT) {
+                byte conversion = conversion(slots[i].getType());
+                conversions[argumentIndex] = conversion;
+                if (conversion == OBJECT) {
+                    stores[argumentIndex] = objectCount++;
+                    converters[argumentIndex] = slots[i].getConverter();
+                    missingObjects[argumentIndex] = slots[i].getMissingValue();
+                } else {
+                    stores[argumentIndex] = primitiveCount++;
+                    missingPrimitives[argumentIndex] = encode(conversion, slots[i].getMissingValue());
+                }
+                positions[i] = stores[argumentIndex];
+                argumentIndex++;
+                if (!slots[i].isOptional()) {
+                    requiredArguments = argumentIndex;
+                }
+            }
+        }
+
+        // replace the parameters from the last to the first one by their readers, so the positions of the
+        // remaining parameters don't move. The target stays the first parameter.
+        for (int i = slots.length - 1; i >= 0; i--) {
+            mh = MethodHandles.collectArguments(mh, i + 1, reader(slots[i], positions[i]));
+        }
+        int[] reorder = new int[1 + slots.length * READ_PARAMETERS.length];
+        for (int i = 1; i < reorder.length; i++) {
+            reorder[i] = 1 + (i - 1) % READ_PARAMETERS.length;
+        }
+        mh = slots.length == 0 ? MethodHandles.dropArguments(mh, 1, READ_PARAMETERS)
+                : MethodHandles.permuteArguments(mh, INVOKE_TYPE, reorder);
+        return new SpecializedBinder(plan, mh, requiredArguments, requiredMetadata, conversions, stores, converters,
+                missingPrimitives, missingObjects, primitiveCount, objectCount);
+    }
+
+    /***
+     * @return number of primitive arguments, i.e. the size of the long array of {@link #bind}.
+     */
+    int getPrimitiveCount() {
+        return primitiveCount;
+    }
+
+    /***
+     * @return number of non-primitive arguments, i.e. the size of the object array of {@link #bind}.
+     */
+    int getObjectCount() {
+        return objectCount;
+    }
+
+    /***
+     * Checks that all required arguments and metadata objects are there and that there are not too many arguments,
+     * then converts all arguments. Missing optional arguments get their default value.
+     * @param tokens all parts of the command.
+     * @param arguments indices of the parts which are positional arguments.
+     * @param argumentCount number of positional arguments.
+     * @param metadataCount number of metadata objects.
+     * @param primitives array to store the primitive arguments in, see {@link #getPrimitiveCount()}.
+     * @param objects array to store the other arguments in, see {@link #getObjectCount()}.
+     * @throws MalformedCommandException if an argument is missing or there are too many.
+     * @throws RuntimeException if an argument can't be converted, like a converter of the generic binding.
+     */
+    void bind(Tokens tokens, int[] arguments, int argumentCount, int metadataCount, long[] primitives,
+              Object[] objects) {
+        check(argumentCount, metadataCount);
+        for (int i = 0; i < conversions.length; i++) {
+            byte conversion = conversions[i];
+            if (i >= argumentCount) {
+                if (conversion == OBJECT) {
+                    objects[stores[i]] = missingObjects[i];
+                } else {
+                    primitives[stores[i]] = missingPrimitives[i];
+                }
+                continue;
+            }
+            int index = arguments[i];
+            switch (conversion) {
+                case INT:
+                    primitives[stores[i]] = PrimitiveArguments.parseInt(tokens, index);
+                    break;
+                case LONG:
+                    primitives[stores[i]] = PrimitiveArguments.parseLong(tokens, index);
+                    break;
+                case DOUBLE:
+                    primitives[stores[i]] = Double.doubleToRawLongBits(Double.parseDouble(tokens.get(index)));
+                    break;
+                case FLOAT:
+                    primitives[stores[i]] = Float.floatToRawIntBits(Float.parseFloat(tokens.get(index)));
+                    break;
+                case BOOLEAN:
+                    primitives[stores[i]] = PrimitiveArguments.parseBoolean(tokens, index) ? 1 : 0;
+                    break;
+                case CHAR:
+                    primitives[stores[i]] = PrimitiveArguments.parseChar(tokens, index);
+                    break;
+                default:
+                    objects[stores[i]] = converters[i].convert(tokens.get(index));
+            }
+        }
+    }
+
+    private void check(int argumentCount, int metadataCount) {
+        if (argumentCount >= requiredArguments && metadataCount >= requiredMetadata
+                && argumentCount <= plan.getArgumentCount()) {
+            return;
+        }
+        // report the first missing parameter in the order of the parameters, like the generic binding does
+        int argumentIndex = 0;
+        int metaIndex = 0;
+        for (CommandPlan.Slot slot: plan.getSlots()) {
+            if (slot.getKind() == CommandPlan.SlotKind.META && metaIndex++ >= metadataCount && !slot.isOptional()) {
+                throw new MalformedCommandException("Metadata argument '" + slot.getName() + "' is missing.");
+            }
+            if (slot.getKind() == CommandPlan.SlotKind.ARGUMENT && argumentIndex++ >= argumentCount
+                    && !slot.isOptional()) {
+                throw new MalformedCommandException("Argument '" + slot.getName() + "' is missing.");
+            }
+        }
+        throw new MalformedCommandException("Too many arguments passed for command '" + plan.getCommand() + "'");
+    }
+
+    /***
+     * Invokes the command method with the arguments converted by {@link #bind}.
+     * @param target object the command method gets invoked on. Ignored for static methods.
+     * @param primitives the converted primitive arguments.
+     * @param objects the other converted arguments.
+     * @param flags the set flags of the command.
+     * @param metadata the metadata objects.
+     * @return the result of the command method.
+     * @throws InvocationTargetException if the command method throws.
+     */
+    Object invoke(Object target, long[] primitives, Object[] objects, long flags, Object[] metadata)
+            throws InvocationTargetException {
+        try {
+            return (Object) handle.invokeExact(target, primitives, objects, flags, metadata);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    private static byte conversion(Class<?> type) {
+        if (type == int.class) {
+            return INT;
+        } else if (type == long.class) {
+            return LONG;
+        } else if (type == double.class) {
+            return DOUBLE;
+        } else if (type == float.class) {
+            return FLOAT;
+        } else if (type == boolean.class) {
+            return BOOLEAN;
+        } else if (type == char.class) {
+            return CHAR;
+        }
+        return OBJECT;
+    }
+
+    /***
+     * @return the missing value of a primitive argument like it is stored by {@link #bind}.
+     */
+    private static long encode(byte conversion, Object missing) {
+        if (missing == null) {
+            return 0;
+        }
+        switch (conversion) {
+            case DOUBLE:
+                return Double.doubleToRawLongBits((Double) missing);
+            case FLOAT:
+                return Float.floatToRawIntBits((Float) missing);
+            case BOOLEAN:
+                return (Boolean) missing ? 1 : 0;
+            case CHAR:
+                return (Character) missing;
+            default:
+                return ((Number) missing).longValue();
+        }
+    }
+
+    /***
+     * @return handle which reads the value of the slot from the read parameters.
+     */
+    private static MethodHandle reader(CommandPlan.Slot slot, int position) {
+        Class<?> type = slot.getType();
+        switch (slot.getKind()) {
+            case META:
+                return MethodHandles.insertArguments(find("meta", Object.class, int.class, Object.class),
+                        READ_PARAMETERS.length, position, slot.getMissingValue())
+                        .asType(MethodType.methodType(type, READ_PARAMETERS));
+            case FLAG:
+                return MethodHandles.insertArguments(find("flag", boolean.class, long.class),
+                        READ_PARAMETERS.length, 1L << slot.getFlagIndex());
+            default:
+                String name;
+                switch (conversion(type)) {
+                    case INT:
+                        name = "intArgument";
+                        break;
+                    case LONG:
+                        name = "longArgument";
+                        break;
+                    case DOUBLE:
+                        name = "doubleArgument";
+                        break;
+                    case FLOAT:
+                        name = "floatArgument";
+                        break;
+                    case BOOLEAN:
+                        name = "booleanArgument";
+                        break;
+                    case CHAR:
+                        name = "charArgument";
+                        break;
+                    default:
+                        return MethodHandles.insertArguments(find("objectArgument", Object.class, int.class),
+                                READ_PARAMETERS.length, position)
+                                .asType(MethodType.methodType(type, READ_PARAMETERS));
+                }
+                return MethodHandles.insertArguments(find(name, type, int.class), READ_PARAMETERS.length, position);
+        }
+    }
+
+    private static MethodHandle find(String name, Class<?> returnType, Class<?>... constants) {
+        Class<?>[] parameters = new Class<?>[READ_PARAMETERS.length + constants.length];
+        System.arraycopy(READ_PARAMETERS, 0, parameters, 0, READ_PARAMETERS.length);
+        System.arraycopy(constants, 0, parameters, READ_PARAMETERS.length, constants.length);
+        try {
+            return MethodHandles.lookup().findStatic(SpecializedBinder.class, name,
+                    MethodType.methodType(returnType, parameters));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object meta(long[] primitives, Object[] objects, long flags, Object[] metadata, int position,
+                               Object missing) {
+        return position < metadata.length ? metadata[position] : missing;
+    }
+
+    private static boolean flag(long[] primitives, Object[] objects, long flags, Object[] metadata, long bit) {
+        return (flags & bit) != 0;
+    }
+
+    private static int intArgument(long[] primitives, Object[] objects, long flags, Object[] metadata,
+                                   int position) {
+        return (int) primitives[position];
+    }
+
+    private static long longArgument(long[] primitives, Object[] objects, long flags, Object[] metadata,
+                                     int position) {
+        return primitives[position];
+    }
+
+    private static double doubleArgument(long[] primitives, Object[] objects, long flags, Object[] metadata,
+                                         int position) {
+        return Double.longBitsToDouble(primitives[position]);
+    }
+
+    private static float floatArgument(long[] primitives, Object[] objects, long flags, Object[] metadata,
+                                       int position) {
+        return Float.intBitsToFloat((int) primitives[position]);
+    }
+
+    private static boolean booleanArgument(long[] primitives, Object[] objects, long flags, Object[] metadata,
+                                           int position) {
+        return primitives[position] != 0;
+    }
+
+    private static char charArgument(long[] primitives, Object[] objects, long flags, Object[] metadata,
+                                     int position) {
+        return (char) primitives[position];
+    }
+
+    private static Object objectArgument(long[] primitives, Object[] objects, long flags, Object[] metadata,
+                                         int position) {
+        return objects[position];
+    }
+}
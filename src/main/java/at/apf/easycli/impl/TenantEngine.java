@@ -0,0 +1,48 @@
+package at.apf.easycli.impl;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/***
+ * Engine of a {@link CommandSet}. Its snapshot is an overlay over the shared snapshot of the set, which only holds
+ * the commands the engine registers or unregisters itself. The objects and result caches of the shared commands are
+ * resolved by their index in the set.
+ */
+final class TenantEngine extends EasyEngine {
+
+    private final AtomicReference<CommandRegistry> registry;
+    private final Object[] targets;
+    private final ResultCache[] caches;
+
+    /***
+     * @param template engine which compiled the set.
+     * @param registry the shared commands of the set.
+     * @param targets objects to invoke the shared commands on, by the index of their class in the set.
+     * @param caches result caches of the shared cacheable commands, by their cache index.
+     */
+    TenantEngine(EasyEngine template, CommandRegistry registry, Object[] targets, ResultCache[] caches) {
+        super(template);
+        this.registry = new AtomicReference<>(CommandRegistry.overlay(registry));
+        this.targets = targets;
+        this.caches = caches;
+    }
+
+    @Override
+    CommandRegistry registry() {
+        return registry.get();
+    }
+
+    @Override
+    boolean compareAndSetRegistry(CommandRegistry expected, CommandRegistry updated) {
+        return registry.compareAndSet(expected, updated);
+    }
+
+    @Override
+    Object target(RegisteredCommand registered) {
+        return registered.isShared() ? targets[registered.getTargetIndex()] : registered.getTarget();
+    }
+
+    @Override
+    ResultCache cache(RegisteredCommand registered) {
+        return registered.getCacheIndex() != -1 ? caches[registered.getCacheIndex()] : registered.getCache();
+    }
+}
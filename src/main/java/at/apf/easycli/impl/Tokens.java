@@ -0,0 +1,117 @@
+package at.apf.easycli.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/***
+ * Result of {@link CliSplitter#tokenize(CharSequence)}. Stores the parts of a command as offsets into the original
+ * command, so a part is only copied into a String if it is actually needed as one.
+ */
+public final class Tokens {
+
+    private CharSequence source = "";
+    private int[] bounds = new int[16];
+    private boolean[] escaped = new boolean[8];
+    private int size;
+
+    /***
+     * @return the command the tokens point into.
+     */
+    public CharSequence source() {
+        return source;
+    }
+
+    /***
+     * @return the number of parts.
+     */
+    public int size() {
+        return size;
+    }
+
+    /***
+     * @param index index of the part.
+     * @return the offset of the first character of the part in the source, surrounding quotes excluded.
+     */
+    public int start(int index) {
+        return bounds[index << 1];
+    }
+
+    /***
+     * @param index index of the part.
+     * @return the offset after the last character of the part in the source, surrounding quotes excluded.
+     */
+    public int end(int index) {
+        return bounds[(index << 1) + 1];
+    }
+
+    /***
+     * @param index index of the part.
+     * @return the number of characters of the part in the source.
+     */
+    public int length(int index) {
+        return end(index) - start(index);
+    }
+
+    /***
+     * @param index index of the part.
+     * @return true if the part contains an escaped quote, so the source characters differ from the part's value.
+     */
+    public boolean isEscaped(int index) {
+        return escaped[index];
+    }
+
+    /***
+     * @param index index of the part.
+     * @param pos position within the part.
+     * @return the character at the position of the part in the source.
+     */
+    public char charAt(int index, int pos) {
+        return source.charAt(start(index) + pos);
+    }
+
+    /***
+     * Materializes the part as String.
+     * @param index index of the part.
+     * @return the value of the part with unescaped quotes.
+     */
+    public String get(int index) {
+        String str = source.subSequence(start(index), end(index)).toString();
+        return escaped[index] ? str.replace("\\\"", "\"") : str;
+    }
+
+    /***
+     * Materializes all parts.
+     * @return list which contains all parts.
+     */
+    public List<String> toList() {
+        List<String> parts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            parts.add(get(i));
+        }
+        return parts;
+    }
+
+    /***
+     * Resets the tokens to point into a new source, so the instance and its buffers can be reused.
+     * @param source the new source.
+     */
+    void reset(CharSequence source) {
+        this.source = source;
+        this.size = 0;
+    }
+
+    void add(int start, int end, boolean escaped) {
+        if (size == this.escaped.length) {
+            int[] newBounds = new int[bounds.length << 1];
+            System.arraycopy(bounds, 0, newBounds, 0, bounds.length);
+            bounds = newBounds;
+            boolean[] newEscaped = new boolean[this.escaped.length << 1];
+            System.arraycopy(this.escaped, 0, newEscaped, 0, this.escaped.length);
+            this.escaped = newEscaped;
+        }
+        bounds[size << 1] = start;
+        bounds[(size << 1) + 1] = end;
+        this.escaped[size] = escaped;
+        size++;
+    }
+}
@@ -5,79 +5,157 @@ import at.apf.easycli.annotation.DefaultValue;
 import at.apf.easycli.annotation.Flag;
 import at.apf.easycli.annotation.Meta;
 import at.apf.easycli.annotation.Optional;
+import at.apf.easycli.annotation.Piped;
 import at.apf.easycli.annotation.Usage;
+import at.apf.easycli.util.TypeParser;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class UsagePrinter {
 
+    /***
+     * A positional argument in the usage text.
+     */
+    public static final class ArgumentUsage {
+        private final String typeName;
+        private final boolean optional;
+        private final boolean repeated;
+
+        /***
+         * @param typeName simple name of the argument type, of the element type for arrays and collections.
+         * @param optional true if the argument may be missing.
+         * @param repeated true if the argument takes all remaining arguments.
+         */
+        public ArgumentUsage(String typeName, boolean optional, boolean repeated) {
+            this.typeName = typeName;
+            this.optional = optional;
+            this.repeated = repeated;
+        }
+    }
+
+    /***
+     * A flag in the usage text.
+     */
+    public static final class FlagUsage {
+        private final char flag;
+        private final String alternative;
+        private final String description;
+
+        /***
+         * @param flag the character of the flag.
+         * @param alternative the alternative of the flag or an empty string.
+         * @param description the @{@link Usage} of the flag parameter or null.
+         */
+        public FlagUsage(char flag, String alternative, String description) {
+            this.flag = flag;
+            this.alternative = alternative;
+            this.description = description;
+        }
+    }
+
     public String commandUsage(Method method) {
         Parameter[] params = method.getParameters();
-        List<Parameter> flags = Stream.of(params)
+        List<FlagUsage> flags = Stream.of(params)
                 .filter(p -> p.isAnnotationPresent(Flag.class))
-                .sorted((a, b) -> a.getAnnotation(Flag.class).value() - b.getAnnotation(Flag.class).value())
+                .map(p -> new FlagUsage(p.getAnnotation(Flag.class).value(), p.getAnnotation(Flag.class).alternative(),
+                        p.isAnnotationPresent(Usage.class) ? p.getAnnotation(Usage.class).value() : null))
+                .collect(Collectors.toList());
+        List<ArgumentUsage> arguments = Stream.of(params)
+                .filter(p -> !p.isAnnotationPresent(Flag.class) && !p.isAnnotationPresent(Meta.class)
+                        && !p.isAnnotationPresent(Piped.class))
+                .map(p -> {
+                    boolean optional = p.isAnnotationPresent(Optional.class)
+                            || p.isAnnotationPresent(DefaultValue.class)
+                            || p.getType().equals(java.util.Optional.class);
+                    boolean generic = p.getType().equals(java.util.Optional.class)
+                            || TypeParser.isCollectionType(p.getType());
+                    boolean repeated = p.getType().isArray() || TypeParser.isCollectionType(p.getType());
+                    String typeName;
+                    if (p.getType().isArray()) {
+                        typeName = p.getType().getComponentType().getSimpleName();
+                    } else if (generic && TypeParser.elementType(p) != null) {
+                        typeName = TypeParser.elementType(p).getSimpleName();
+                    } else {
+                        typeName = p.getType().getSimpleName();
+                    }
+                    return new ArgumentUsage(typeName, optional, repeated);
+                })
                 .collect(Collectors.toList());
-        List<Parameter> arguments = Stream.of(params)
-                .filter(p -> !p.isAnnotationPresent(Flag.class) && !p.isAnnotationPresent(Meta.class))
+        return commandUsage(method.getAnnotation(Command.class).value(),
+                method.isAnnotationPresent(Usage.class) ? method.getAnnotation(Usage.class).value() : null,
+                arguments, flags);
+    }
+
+    /***
+     * Renders the usage text of a command.
+     * @param command name of the command.
+     * @param description the @{@link Usage} of the command method or null.
+     * @param arguments the positional arguments in declaration order.
+     * @param flags the flags in declaration order.
+     * @return the usage text.
+     */
+    public String commandUsage(String command, String description, List<ArgumentUsage> arguments,
+                               List<FlagUsage> flags) {
+        List<FlagUsage> sortedFlags = flags.stream()
+                .sorted((a, b) -> a.flag - b.flag)
                 .collect(Collectors.toList());
 
         StringBuilder sb = new StringBuilder("Usage: ");
-        sb.append(method.getAnnotation(Command.class).value());
+        sb.append(command);
 
-        if (flags.size() > 0) {
+        if (sortedFlags.size() > 0) {
             sb.append(" [FLAG...]");
         }
 
         int optionalCounter = 0;
-        for (Parameter p: arguments) {
+        for (ArgumentUsage argument: arguments) {
             sb.append(" ");
-            boolean optional = p.isAnnotationPresent(Optional.class) || p.isAnnotationPresent(DefaultValue.class);
-            optionalCounter += optional ? 1 : 0;
-            sb.append(optional ? "[" : "");
+            optionalCounter += argument.optional ? 1 : 0;
+            sb.append(argument.optional ? "[" : "");
             sb.append("<");
-            sb.append(p.getType().isArray() ? p.getType().getComponentType() : p.getType().getSimpleName());
+            sb.append(argument.typeName);
             sb.append(">");
-            sb.append(p.getType().isArray() ? "..." : "");
+            sb.append(argument.repeated ? "..." : "");
         }
         for (int i = 0; i < optionalCounter; i++) {
             sb.append("]");
         }
 
         sb.append("\n");
-        sb.append(method.isAnnotationPresent(Usage.class) ? method.getAnnotation(Usage.class).value() + "\n" : "");
+        sb.append(description != null ? description + "\n" : "");
 
-        if (flags.size() > 0) {
+        if (sortedFlags.size() > 0) {
             sb.append("\n");
             sb.append("FLAGS:");
             sb.append("\n");
         }
-        int longestAlternative = flags.stream()
-                .map(p -> p.getAnnotation(Flag.class).alternative())
+        int longestAlternative = sortedFlags.stream()
+                .map(f -> f.alternative)
                 .filter(a -> !a.isEmpty())
                 .map(a -> a.length() + 4)
                 .max((a, b) -> a - b)
                 .orElse(0);
 
-        for (Parameter p: flags) {
+        for (FlagUsage flag: sortedFlags) {
             sb.append("  -");
-            Flag flagAnno = p.getAnnotation(Flag.class);
-            sb.append(flagAnno.value());
+            sb.append(flag.flag);
             int curLen = 0;
-            if (!flagAnno.alternative().isEmpty()) {
+            if (!flag.alternative.isEmpty()) {
                 sb.append(", --");
-                sb.append(flagAnno.alternative());
-                curLen += 4 + flagAnno.alternative().length();
+                sb.append(flag.alternative);
+                curLen += 4 + flag.alternative.length();
             }
             while (curLen < longestAlternative) {
                 sb.append(" ");
                 curLen++;
             }
             sb.append("  ");
-            sb.append(p.isAnnotationPresent(Usage.class) ? p.getAnnotation(Usage.class).value() : "");
+            sb.append(flag.description != null ? flag.description : "");
             sb.append("\n");
         }
 
@@ -85,23 +163,39 @@ public class UsagePrinter {
     }
 
     public String listCommands(List<Method> methods) {
-        StringBuilder sb = new StringBuilder();
-        methods = methods.stream()
-                .sorted((a, b) -> a.getAnnotation(Command.class).value().compareTo(
-                b.getAnnotation(Command.class).value()))
-                .collect(Collectors.toList());
-        int longestCommand = methods.stream()
-                .map(m -> m.getAnnotation(Command.class).value().length())
-                .max((a, b) -> a - b)
+        return listCommands(
+                methods.stream().map(m -> m.getAnnotation(Command.class).value()).collect(Collectors.toList()),
+                methods.stream()
+                        .map(m -> m.isAnnotationPresent(Usage.class) ? m.getAnnotation(Usage.class).value() : null)
+                        .collect(Collectors.toList()));
+    }
+
+    /***
+     * Renders the listing of commands, sorted by their names.
+     * @param commands names of the commands.
+     * @param descriptions the @{@link Usage} values of the commands, null if a command has none.
+     * @return the listing.
+     */
+    public String listCommands(List<String> commands, List<String> descriptions) {
+        Integer[] order = new Integer[commands.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> commands.get(a).compareTo(commands.get(b)));
+        int longestCommand = commands.stream()
+                .mapToInt(String::length)
+                .max()
                 .orElse(0);
-        for (Method m: methods) {
-            String cmd = m.getAnnotation(Command.class).value();
-            while (cmd.length() < longestCommand) {
-                cmd += " ";
-            }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i: order) {
+            String cmd = commands.get(i);
             sb.append(cmd);
+            for (int pad = cmd.length(); pad < longestCommand; pad++) {
+                sb.append(' ');
+            }
             sb.append("  ");
-            sb.append(m.isAnnotationPresent(Usage.class) ? m.getAnnotation(Usage.class).value() : "");
+            sb.append(descriptions.get(i) != null ? descriptions.get(i) : "");
             sb.append("\n");
         }
         return sb.toString();
@@ -0,0 +1,61 @@
+package at.apf.easycli.metrics;
+
+/***
+ * Immutable snapshot of the result cache of a single @{@link at.apf.easycli.annotation.Cacheable} command.
+ */
+public final class CacheStats {
+
+    private final String command;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int size;
+
+    public CacheStats(String command, long hits, long misses, long evictions, int size) {
+        this.command = command;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /***
+     * @return number of results which were removed because the cache was full or they expired.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /***
+     * @return number of currently cached results.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /***
+     * @return hits divided by all lookups, or 0 if there were none.
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return command + ": " + hits + " hits, " + misses + " misses, " + evictions + " evictions, " + size
+                + " cached";
+    }
+}
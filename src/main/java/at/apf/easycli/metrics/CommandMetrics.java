@@ -0,0 +1,91 @@
+package at.apf.easycli.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/***
+ * Live metrics of a single command: how often it was invoked, how often it failed and how long the phases of the
+ * dispatch took. All counters are striped, so recording from many threads does not contend.
+ */
+public final class CommandMetrics {
+
+    private final String command;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LatencyHistogram tokenize = new LatencyHistogram();
+    private final LatencyHistogram bind = new LatencyHistogram();
+    private final LatencyHistogram invoke = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+
+    CommandMetrics(String command) {
+        this.command = command;
+    }
+
+    /***
+     * Records a single dispatch of the command.
+     * @param tokenizeNanos time to resolve the command and to split its arguments.
+     * @param bindNanos time to convert the arguments and to fill the parameters.
+     * @param invokeNanos time of the command method itself.
+     * @param failed true if the command method threw.
+     */
+    public void record(long tokenizeNanos, long bindNanos, long invokeNanos, boolean failed) {
+        invocations.increment();
+        if (failed) {
+            failures.increment();
+        }
+        tokenize.record(tokenizeNanos);
+        bind.record(bindNanos);
+        invoke.record(invokeNanos);
+        total.record(tokenizeNanos + bindNanos + invokeNanos);
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    /***
+     * @return how often the command method threw an exception.
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public LatencyHistogram getTokenize() {
+        return tokenize;
+    }
+
+    public LatencyHistogram getBind() {
+        return bind;
+    }
+
+    public LatencyHistogram getInvoke() {
+        return invoke;
+    }
+
+    /***
+     * @return the histogram of the whole dispatch, i.e. the sum of tokenize, bind and invoke.
+     */
+    public LatencyHistogram getTotal() {
+        return total;
+    }
+
+    /***
+     * @return an immutable snapshot of the current values.
+     */
+    public CommandStats snapshot() {
+        return new CommandStats(command, getInvocations(), getFailures(), tokenize.getMean(), bind.getMean(),
+                invoke.getMean(), total.getMean(), total.getPercentile(50), total.getPercentile(99), total.getMax());
+    }
+
+    void reset() {
+        invocations.reset();
+        failures.reset();
+        tokenize.reset();
+        bind.reset();
+        invoke.reset();
+        total.reset();
+    }
+}
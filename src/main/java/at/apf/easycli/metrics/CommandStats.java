@@ -0,0 +1,78 @@
+package at.apf.easycli.metrics;
+
+/***
+ * Immutable snapshot of the {@link CommandMetrics} of a single command. All times are in nanoseconds.
+ */
+public final class CommandStats {
+
+    private final String command;
+    private final long invocations;
+    private final long failures;
+    private final double meanTokenizeNanos;
+    private final double meanBindNanos;
+    private final double meanInvokeNanos;
+    private final double meanNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+
+    CommandStats(String command, long invocations, long failures, double meanTokenizeNanos, double meanBindNanos,
+                 double meanInvokeNanos, double meanNanos, long p50Nanos, long p99Nanos, long maxNanos) {
+        this.command = command;
+        this.invocations = invocations;
+        this.failures = failures;
+        this.meanTokenizeNanos = meanTokenizeNanos;
+        this.meanBindNanos = meanBindNanos;
+        this.meanInvokeNanos = meanInvokeNanos;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public long getInvocations() {
+        return invocations;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public double getMeanTokenizeNanos() {
+        return meanTokenizeNanos;
+    }
+
+    public double getMeanBindNanos() {
+        return meanBindNanos;
+    }
+
+    public double getMeanInvokeNanos() {
+        return meanInvokeNanos;
+    }
+
+    public double getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return command + ": " + invocations + " invocations, " + failures + " failures, mean " + (long) meanNanos
+                + "ns, p50 " + p50Nanos + "ns, p99 " + p99Nanos + "ns, max " + maxNanos + "ns";
+    }
+}
@@ -0,0 +1,104 @@
+package at.apf.easycli.metrics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/***
+ * Metrics of all commands dispatched by an engine and of all errors. An instance is passed to
+ * {@link at.apf.easycli.impl.EasyEngine#setMetrics(EngineMetrics)} and can be exposed as MBean with
+ * {@link #registerMBean(String)}.
+ *
+ * <pre>
+ *   EngineMetrics metrics = new EngineMetrics();
+ *   engine.setMetrics(metrics);
+ *   metrics.registerMBean("main");
+ * </pre>
+ */
+public final class EngineMetrics implements EngineMetricsMXBean {
+
+    private final Map<String, CommandMetrics> commands = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    /***
+     * @param command name of the command.
+     * @return the metrics of the command, which get created on the first call.
+     */
+    public CommandMetrics command(String command) {
+        CommandMetrics metrics = commands.get(command);
+        return metrics != null ? metrics : commands.computeIfAbsent(command, CommandMetrics::new);
+    }
+
+    /***
+     * Counts an error by the class of the exception.
+     * @param error the exception.
+     */
+    public void recordError(Throwable error) {
+        String type = error.getClass().getName();
+        LongAdder counter = errors.get(type);
+        if (counter == null) {
+            counter = errors.computeIfAbsent(type, t -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /***
+     * @param type the exception type.
+     * @return how often the exception occurred.
+     */
+    public long errorCount(Class<? extends Throwable> type) {
+        LongAdder counter = errors.get(type.getName());
+        return counter == null ? 0 : counter.sum();
+    }
+
+    @Override
+    public List<CommandStats> getCommands() {
+        List<CommandStats> stats = new ArrayList<>(commands.size());
+        for (CommandMetrics metrics: commands.values()) {
+            stats.add(metrics.snapshot());
+        }
+        stats.sort(Comparator.comparing(CommandStats::getCommand));
+        return stats;
+    }
+
+    @Override
+    public Map<String, Long> getErrors() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        errors.forEach((type, counter) -> snapshot.put(type, counter.sum()));
+        return snapshot;
+    }
+
+    @Override
+    public long getInvocations() {
+        long invocations = 0;
+        for (CommandMetrics metrics: commands.values()) {
+            invocations += metrics.getInvocations();
+        }
+        return invocations;
+    }
+
+    @Override
+    public void reset() {
+        commands.values().forEach(CommandMetrics::reset);
+        errors.values().forEach(LongAdder::reset);
+    }
+
+    /***
+     * Registers the metrics at the platform MBean server.
+     * @param name name to distinguish several engines.
+     * @return the object name of the MBean.
+     * @throws JMException if the MBean can not be registered, e.g. because the name is already used.
+     */
+    public ObjectName registerMBean(String name) throws JMException {
+        ObjectName objectName = new ObjectName("at.apf.easycli:type=EngineMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+}
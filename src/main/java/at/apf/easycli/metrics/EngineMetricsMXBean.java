@@ -0,0 +1,31 @@
+package at.apf.easycli.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+/***
+ * JMX view of the {@link EngineMetrics} of an engine.
+ */
+public interface EngineMetricsMXBean {
+
+    /***
+     * @return snapshots of all commands which have been dispatched.
+     */
+    List<CommandStats> getCommands();
+
+    /***
+     * @return number of errors by the class name of the exception, including unknown commands, malformed commands,
+     *         argument conversion failures and exceptions thrown by the command methods.
+     */
+    Map<String, Long> getErrors();
+
+    /***
+     * @return total number of dispatched commands.
+     */
+    long getInvocations();
+
+    /***
+     * Clears all metrics.
+     */
+    void reset();
+}
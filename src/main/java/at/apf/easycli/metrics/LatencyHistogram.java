@@ -0,0 +1,132 @@
+package at.apf.easycli.metrics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/***
+ * Thread-safe histogram of latencies in nanoseconds with log-linear buckets, like an HDR histogram with one
+ * significant hex digit: each power of two is divided into 16 buckets, so a recorded value is off by at most 1/16 of
+ * its magnitude. Every bucket counts with its own {@link LongAdder}, which stripes the count over several cells when
+ * threads contend, so threads recording into the same bucket don't serialize on one counter. The adders are created
+ * on the first recording into their bucket, afterwards recording is free of locks and allocations.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicReferenceArray<LongAdder> buckets = new AtomicReferenceArray<>(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /***
+     * Records a latency.
+     * @param nanos the latency in nanoseconds, negative values are recorded as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        adder(bucket(value)).increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /***
+     * @return the number of recorded latencies.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /***
+     * @return the mean latency in nanoseconds or 0 if nothing has been recorded.
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /***
+     * @return the maximum latency in nanoseconds or 0 if nothing has been recorded.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /***
+     * Estimates a percentile from the buckets. Concurrent recordings may or may not be included.
+     * @param percentile the percentile between 0 and 100.
+     * @return the upper bound of the bucket which contains the percentile, in nanoseconds, or 0 if nothing has been
+     *         recorded.
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            LongAdder adder = buckets.get(i);
+            counts[i] = adder == null ? 0 : adder.sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /***
+     * Clears all recorded latencies. Latencies which are recorded concurrently may get lost or partially kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            LongAdder adder = buckets.get(i);
+            if (adder != null) {
+                adder.reset();
+            }
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    private LongAdder adder(int bucket) {
+        LongAdder adder = buckets.get(bucket);
+        if (adder == null) {
+            buckets.compareAndSet(bucket, null, new LongAdder());
+            adder = buckets.get(bucket);
+        }
+        return adder;
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
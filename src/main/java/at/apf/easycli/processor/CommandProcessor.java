@@ -0,0 +1,359 @@
+package at.apf.easycli.processor;
+
+import at.apf.easycli.annotation.Cacheable;
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.annotation.DefaultValue;
+import at.apf.easycli.annotation.Flag;
+import at.apf.easycli.annotation.Meta;
+import at.apf.easycli.annotation.Optional;
+import at.apf.easycli.annotation.Piped;
+import at.apf.easycli.annotation.Usage;
+import at.apf.easycli.spi.GeneratedDispatcher;
+import at.apf.easycli.impl.UsagePrinter;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/***
+ * Annotation processor which generates a {@link GeneratedDispatcher} for every class with @{@link Command} methods.
+ * The dispatcher contains the descriptors and the rendered usage texts of the commands and invokes them by plain
+ * method calls, so registering an object of the class needs no reflection. It gets picked up by the
+ * {@link at.apf.easycli.impl.EasyEngine} automatically.
+ *
+ * <p>The processor is not registered as a service, so it only runs in builds which enable it, e.g. with
+ * {@code javac -processor at.apf.easycli.processor.CommandProcessor} or the {@code annotationProcessors} of the
+ * maven-compiler-plugin.</p>
+ *
+ * <p>Classes which can not be called from generated code in their package are skipped and stay registered by
+ * reflection: anonymous, local and private classes, inner (non-static) classes and classes with private or static
+ * command methods or with command methods which declare a Throwable that is neither an Exception nor an Error.</p>
+ */
+public class CommandProcessor extends AbstractProcessor {
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(Command.class.getName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<ExecutableElement>> commandClasses = new LinkedHashMap<>();
+        for (Element element: roundEnv.getElementsAnnotatedWith(Command.class)) {
+            if (element.getKind() == ElementKind.METHOD && element.getEnclosingElement() instanceof TypeElement) {
+                commandClasses.computeIfAbsent((TypeElement) element.getEnclosingElement(), t -> new ArrayList<>())
+                        .add((ExecutableElement) element);
+            }
+        }
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry: commandClasses.entrySet()) {
+            if (isAccessible(entry.getKey(), entry.getValue())) {
+                generate(entry.getKey(), entry.getValue());
+            }
+        }
+        return false;
+    }
+
+    private boolean isAccessible(TypeElement type, List<ExecutableElement> methods) {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            TypeElement t = (TypeElement) e;
+            if (t.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (t.getNestingKind() != NestingKind.TOP_LEVEL
+                    && (t.getNestingKind() != NestingKind.MEMBER || !t.getModifiers().contains(Modifier.STATIC))) {
+                return false;
+            }
+        }
+        for (ExecutableElement method: methods) {
+            if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "No dispatcher generated, private and static commands are registered by reflection", method);
+                return false;
+            }
+            if (throwsThrowable(method)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "No dispatcher generated, commands which throw a Throwable are registered by reflection",
+                        method);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /***
+     * @return true if the method declares a Throwable which can't be thrown from the invoke method of a dispatcher.
+     */
+    private boolean throwsThrowable(ExecutableElement method) {
+        TypeMirror exception = processingEnv.getElementUtils().getTypeElement("java.lang.Exception").asType();
+        TypeMirror error = processingEnv.getElementUtils().getTypeElement("java.lang.Error").asType();
+        for (TypeMirror thrown: method.getThrownTypes()) {
+            if (!processingEnv.getTypeUtils().isAssignable(thrown, exception)
+                    && !processingEnv.getTypeUtils().isAssignable(thrown, error)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement type, List<ExecutableElement> methods) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simpleName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1)
+                .replace('$', '_') + GeneratedDispatcher.SUFFIX;
+        String targetType = erasure(type.asType());
+
+        StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("/** Generated by ").append(getClass().getName()).append(" for {@link ").append(targetType)
+                .append("}. */\n");
+        sb.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        sb.append("public final class ").append(simpleName).append(" implements ")
+                .append(GeneratedDispatcher.class.getName()).append("<").append(targetType).append("> {\n\n");
+
+        sb.append("    private static final java.util.List<at.apf.easycli.spi.CommandDescriptor> COMMANDS =\n");
+        sb.append("            java.util.Collections.unmodifiableList(java.util.Arrays.asList(");
+        for (int i = 0; i < methods.size(); i++) {
+            sb.append(i == 0 ? "\n" : ",\n");
+            appendDescriptor(sb, methods.get(i));
+        }
+        sb.append("));\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public java.util.List<at.apf.easycli.spi.CommandDescriptor> commands() {\n");
+        sb.append("        return COMMANDS;\n");
+        sb.append("    }\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public Object invoke(").append(targetType)
+                .append(" target, int command, Object[] args) throws Exception {\n");
+        sb.append("        switch (command) {\n");
+        for (int i = 0; i < methods.size(); i++) {
+            appendInvocation(sb, i, methods.get(i));
+        }
+        sb.append("            default:\n");
+        sb.append("                throw new IllegalArgumentException(\"Unknown command index \" + command);\n");
+        sb.append("        }\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(sb.toString());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Could not write " + qualifiedName + ": " + e.getMessage(), type);
+        }
+    }
+
+    private void appendDescriptor(StringBuilder sb, ExecutableElement method) {
+        Command command = method.getAnnotation(Command.class);
+        Usage usage = method.getAnnotation(Usage.class);
+        List<UsagePrinter.ArgumentUsage> arguments = new ArrayList<>();
+        List<UsagePrinter.FlagUsage> flags = new ArrayList<>();
+
+        StringBuilder parameters = new StringBuilder();
+        for (VariableElement par: method.getParameters()) {
+            TypeMirror type = par.asType();
+            String erasure = erasure(type);
+            TypeMirror element = elementType(type);
+            Flag flag = par.getAnnotation(Flag.class);
+            DefaultValue defaultValue = par.getAnnotation(DefaultValue.class);
+            boolean optional = par.getAnnotation(Optional.class) != null;
+
+            parameters.append(",\n                    new at.apf.easycli.spi.ParameterDescriptor(")
+                    .append(literal(par.getSimpleName().toString())).append(", ")
+                    .append(erasure).append(".class, ")
+                    .append(element != null ? erasure(element) + ".class" : "null").append(", ")
+                    .append(par.getAnnotation(Meta.class) != null).append(", ")
+                    .append(par.getAnnotation(Piped.class) != null).append(", ")
+                    .append(literal(flag != null ? flag.value() : '\0')).append(", ")
+                    .append(literal(flag != null ? flag.alternative() : "")).append(", ")
+                    .append(optional).append(", ")
+                    .append(literal(defaultValue != null ? defaultValue.value() : null)).append(")");
+
+            if (flag != null) {
+                Usage flagUsage = par.getAnnotation(Usage.class);
+                flags.add(new UsagePrinter.FlagUsage(flag.value(), flag.alternative(),
+                        flagUsage != null ? flagUsage.value() : null));
+            } else if (par.getAnnotation(Meta.class) == null && par.getAnnotation(Piped.class) == null) {
+                boolean isOptionalType = erasure.equals("java.util.Optional");
+                boolean isCollection = erasure.equals("java.util.List") || erasure.equals("java.util.Set")
+                        || erasure.equals("java.util.Collection");
+                String typeName;
+                if (type.getKind() == TypeKind.ARRAY) {
+                    typeName = simpleName(((ArrayType) type).getComponentType());
+                } else if ((isOptionalType || isCollection) && element != null) {
+                    typeName = simpleName(element);
+                } else {
+                    typeName = simpleName(type);
+                }
+                arguments.add(new UsagePrinter.ArgumentUsage(typeName,
+                        optional || defaultValue != null || isOptionalType,
+                        type.getKind() == TypeKind.ARRAY || isCollection));
+            }
+        }
+
+        if (method.getAnnotation(Cacheable.class) != null && isSingleUse(method.getReturnType())) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Command '" + command.value()
+                    + "' returns a result which can only be consumed once and can't be @Cacheable", method);
+        }
+        if (method.getAnnotation(Cacheable.class) != null
+                && method.getParameters().stream().anyMatch(p -> p.getAnnotation(Piped.class) != null)) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Command '" + command.value()
+                    + "' has a @Piped parameter and can't be @Cacheable", method);
+        }
+
+        String usageText = new UsagePrinter().commandUsage(command.value(), usage != null ? usage.value() : null,
+                arguments, flags);
+        sb.append("            new at.apf.easycli.spi.CommandDescriptor(")
+                .append(literal(command.value())).append(", ")
+                .append(literal(command.executor())).append(",\n                    ")
+                .append(literal(usageText)).append(",\n                    ")
+                .append(literal(usage != null ? usage.value() : null)).append(",\n                    ")
+                .append(cachePolicy(method.getAnnotation(Cacheable.class)))
+                .append(parameters)
+                .append(")");
+    }
+
+    /***
+     * @return true if a result of the type can only be consumed once, like a Stream, an Iterator or a Reader.
+     */
+    private boolean isSingleUse(TypeMirror type) {
+        for (String singleUse: new String[]{"java.util.Iterator", "java.lang.AutoCloseable"}) {
+            TypeMirror singleUseType = processingEnv.getElementUtils().getTypeElement(singleUse).asType();
+            if (processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(type),
+                    processingEnv.getTypeUtils().erasure(singleUseType))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String cachePolicy(Cacheable cacheable) {
+        if (cacheable == null) {
+            return "(at.apf.easycli.spi.CachePolicy) null";
+        }
+        return "new at.apf.easycli.spi.CachePolicy(" + cacheable.maxSize() + ", "
+                + cacheable.unit().toNanos(cacheable.expireAfter()) + "L, " + cacheable.includeMeta() + ")";
+    }
+
+    private void appendInvocation(StringBuilder sb, int index, ExecutableElement method) {
+        StringBuilder call = new StringBuilder();
+        call.append("target.").append(method.getSimpleName()).append("(");
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                call.append(", ");
+            }
+            String type = erasure(parameters.get(i).asType());
+            if (!type.equals(Object.class.getName())) {
+                call.append("(").append(type).append(") ");
+            }
+            call.append("args[").append(i).append("]");
+        }
+        call.append(")");
+
+        sb.append("            case ").append(index).append(":\n");
+        if (method.getReturnType().getKind() == TypeKind.VOID) {
+            sb.append("                ").append(call).append(";\n");
+            sb.append("                return null;\n");
+        } else {
+            sb.append("                return ").append(call).append(";\n");
+        }
+    }
+
+    /***
+     * @return the single type argument of a generic type, if it is a class or an array, otherwise null.
+     */
+    private TypeMirror elementType(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        List<? extends TypeMirror> typeArguments = ((DeclaredType) type).getTypeArguments();
+        if (typeArguments.size() != 1) {
+            return null;
+        }
+        TypeKind kind = typeArguments.get(0).getKind();
+        return kind == TypeKind.DECLARED || kind == TypeKind.ARRAY ? typeArguments.get(0) : null;
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    /***
+     * @return the name like {@link Class#getSimpleName()} returns it.
+     */
+    private String simpleName(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return simpleName(((ArrayType) type).getComponentType()) + "[]";
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            return ((DeclaredType) type).asElement().getSimpleName().toString();
+        }
+        return type.toString();
+    }
+
+    private static String literal(char c) {
+        return "'" + (c == '\'' ? "\\'" : escape(c)) + "'";
+    }
+
+    private static String literal(String str) {
+        if (str == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            sb.append(c == '"' ? "\\\"" : escape(c));
+        }
+        return sb.append('"').toString();
+    }
+
+    /***
+     * Escapes a character for a Java literal. Control characters use octal escapes, because unicode escapes of
+     * line breaks would break the literal.
+     */
+    private static String escape(char c) {
+        if (c == '\\') {
+            return "\\\\";
+        } else if (c == '\n') {
+            return "\\n";
+        } else if (c < 0x20) {
+            return String.format("\\%03o", (int) c);
+        } else if (c > 0x7e) {
+            return String.format("\\u%04x", (int) c);
+        }
+        return String.valueOf(c);
+    }
+}
@@ -0,0 +1,50 @@
+package at.apf.easycli.spi;
+
+import at.apf.easycli.annotation.Cacheable;
+
+/***
+ * The settings of a @{@link Cacheable} command, see {@link CommandDescriptor}.
+ * Only meant for the code generated by the {@link at.apf.easycli.processor.CommandProcessor}, see
+ * {@link GeneratedDispatcher}.
+ */
+public final class CachePolicy {
+
+    private final int maxSize;
+    private final long expireAfterNanos;
+    private final boolean includeMeta;
+
+    /***
+     * @param maxSize maximum number of cached results.
+     * @param expireAfterNanos time after which a cached result expires, or 0 if it never expires.
+     * @param includeMeta true if the metadata parameters are part of the cache key.
+     */
+    public CachePolicy(int maxSize, long expireAfterNanos, boolean includeMeta) {
+        this.maxSize = maxSize;
+        this.expireAfterNanos = expireAfterNanos;
+        this.includeMeta = includeMeta;
+    }
+
+    /***
+     * @param cacheable the annotation of the command method or null.
+     * @return the policy of the annotation or null if there is none.
+     */
+    public static CachePolicy of(Cacheable cacheable) {
+        if (cacheable == null) {
+            return null;
+        }
+        return new CachePolicy(cacheable.maxSize(), cacheable.unit().toNanos(cacheable.expireAfter()),
+                cacheable.includeMeta());
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getExpireAfterNanos() {
+        return expireAfterNanos;
+    }
+
+    public boolean isIncludeMeta() {
+        return includeMeta;
+    }
+}
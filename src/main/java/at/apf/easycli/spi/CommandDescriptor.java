@@ -0,0 +1,86 @@
+package at.apf.easycli.spi;
+
+import at.apf.easycli.annotation.Cacheable;
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.annotation.Usage;
+import at.apf.easycli.impl.UsagePrinter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/***
+ * Describes a @{@link Command} method of a class for a {@link GeneratedDispatcher}, so the command can be registered
+ * without reading the method by reflection.
+ * Only meant for the code generated by the {@link at.apf.easycli.processor.CommandProcessor}, see
+ * {@link GeneratedDispatcher}.
+ */
+public final class CommandDescriptor {
+
+    private final String command;
+    private final String executor;
+    private final String usage;
+    private final String description;
+    private final CachePolicy cachePolicy;
+    private final List<ParameterDescriptor> parameters;
+
+    /***
+     * @param command the value of the @{@link Command}.
+     * @param executor the executor of the @{@link Command}.
+     * @param usage the rendered usage text of the command, like {@link UsagePrinter#commandUsage} renders it.
+     * @param description the value of the @{@link Usage} of the method or null if there is none.
+     * @param parameters the parameters of the method in declaration order.
+     */
+    public CommandDescriptor(String command, String executor, String usage, String description,
+                             ParameterDescriptor... parameters) {
+        this(command, executor, usage, description, null, parameters);
+    }
+
+    /***
+     * @param command the value of the @{@link Command}.
+     * @param executor the executor of the @{@link Command}.
+     * @param usage the rendered usage text of the command, like {@link UsagePrinter#commandUsage} renders it.
+     * @param description the value of the @{@link Usage} of the method or null if there is none.
+     * @param cachePolicy the policy of the @{@link Cacheable} of the method or null if there is none.
+     * @param parameters the parameters of the method in declaration order.
+     */
+    public CommandDescriptor(String command, String executor, String usage, String description,
+                             CachePolicy cachePolicy, ParameterDescriptor... parameters) {
+        this.command = command;
+        this.executor = executor;
+        this.usage = usage;
+        this.description = description;
+        this.cachePolicy = cachePolicy;
+        this.parameters = Collections.unmodifiableList(Arrays.asList(parameters));
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public String getExecutor() {
+        return executor;
+    }
+
+    public String getUsage() {
+        return usage;
+    }
+
+    /***
+     * @return the value of the @{@link Usage} of the method or null if there is none.
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /***
+     * @return the policy of the @{@link Cacheable} of the method or null if there is none.
+     */
+    public CachePolicy getCachePolicy() {
+        return cachePolicy;
+    }
+
+    public List<ParameterDescriptor> getParameters() {
+        return parameters;
+    }
+}
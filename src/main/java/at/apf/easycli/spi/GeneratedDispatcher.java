@@ -0,0 +1,38 @@
+package at.apf.easycli.spi;
+
+import at.apf.easycli.impl.EasyEngine;
+
+import java.util.List;
+
+/***
+ * Dispatcher for the @{@link at.apf.easycli.annotation.Command} methods of a class, which is generated at compile
+ * time by the {@link at.apf.easycli.processor.CommandProcessor}. If a dispatcher exists for the class of a registered
+ * object, the {@link EasyEngine} neither reads the methods by reflection nor invokes them reflectively.
+ *
+ * <p>This package is only meant for the generated code. It is not part of the API of EasyCLI and may change with
+ * every version, together with the processor.</p>
+ * @param <T> the class which contains the commands.
+ */
+public interface GeneratedDispatcher<T> {
+
+    /***
+     * Suffix of the generated class, which is placed next to the class of the commands. For nested classes the $ of
+     * the binary name is replaced by _.
+     */
+    String SUFFIX = "_EasyCliDispatcher";
+
+    /***
+     * @return the descriptors of all commands of the class.
+     */
+    List<CommandDescriptor> commands();
+
+    /***
+     * Invokes a command method.
+     * @param target the registered object.
+     * @param command index of the command in {@link #commands()}.
+     * @param args the parameter values.
+     * @return the result of the command method or null if the method is void.
+     * @throws Exception if the command method throws.
+     */
+    Object invoke(T target, int command, Object[] args) throws Exception;
+}
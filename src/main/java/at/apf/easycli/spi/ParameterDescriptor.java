@@ -0,0 +1,132 @@
+package at.apf.easycli.spi;
+
+import at.apf.easycli.annotation.DefaultValue;
+import at.apf.easycli.annotation.Flag;
+import at.apf.easycli.annotation.Meta;
+import at.apf.easycli.annotation.Optional;
+import at.apf.easycli.annotation.Piped;
+import at.apf.easycli.util.TypeParser;
+
+import java.lang.reflect.Parameter;
+
+/***
+ * Describes a parameter of a command method with everything its annotations define. It is either read from a
+ * {@link Parameter} by reflection or created by a dispatcher generated at compile time.
+ * Only meant for the code generated by the {@link at.apf.easycli.processor.CommandProcessor}, see
+ * {@link GeneratedDispatcher}.
+ */
+public final class ParameterDescriptor {
+
+    private final String name;
+    private final Class<?> type;
+    private final Class<?> elementType;
+    private final boolean meta;
+    private final boolean piped;
+    private final char flag;
+    private final String alternative;
+    private final boolean optional;
+    private final String defaultValue;
+
+    /***
+     * @param name name of the parameter.
+     * @param type type of the parameter.
+     * @param elementType type argument of List, Set, Collection or java.util.Optional parameters, otherwise null.
+     * @param meta true if the parameter is annotated with @{@link Meta}.
+     * @param flag the character of the @{@link Flag}, or '\0' if the parameter is no flag.
+     * @param alternative the alternative of the @{@link Flag}, or an empty string.
+     * @param optional true if the parameter is annotated with @{@link Optional}.
+     * @param defaultValue the value of the @{@link DefaultValue} or null if there is none.
+     */
+    public ParameterDescriptor(String name, Class<?> type, Class<?> elementType, boolean meta, char flag,
+                               String alternative, boolean optional, String defaultValue) {
+        this(name, type, elementType, meta, false, flag, alternative, optional, defaultValue);
+    }
+
+    /***
+     * @param name name of the parameter.
+     * @param type type of the parameter.
+     * @param elementType type argument of List, Set, Collection or java.util.Optional parameters, otherwise null.
+     * @param meta true if the parameter is annotated with @{@link Meta}.
+     * @param piped true if the parameter is annotated with @{@link Piped}.
+     * @param flag the character of the @{@link Flag}, or '\0' if the parameter is no flag.
+     * @param alternative the alternative of the @{@link Flag}, or an empty string.
+     * @param optional true if the parameter is annotated with @{@link Optional}.
+     * @param defaultValue the value of the @{@link DefaultValue} or null if there is none.
+     */
+    public ParameterDescriptor(String name, Class<?> type, Class<?> elementType, boolean meta, boolean piped,
+                               char flag, String alternative, boolean optional, String defaultValue) {
+        this.name = name;
+        this.type = type;
+        this.elementType = elementType;
+        this.meta = meta;
+        this.piped = piped;
+        this.flag = flag;
+        this.alternative = alternative;
+        this.optional = optional;
+        this.defaultValue = defaultValue;
+    }
+
+    /***
+     * Reads the descriptor of a parameter by reflection.
+     * @param par the parameter.
+     * @return the descriptor.
+     */
+    public static ParameterDescriptor of(Parameter par) {
+        Flag flag = par.getAnnotation(Flag.class);
+        DefaultValue defaultValue = par.getAnnotation(DefaultValue.class);
+        return new ParameterDescriptor(par.getName(), par.getType(), TypeParser.elementType(par),
+                par.isAnnotationPresent(Meta.class), par.isAnnotationPresent(Piped.class),
+                flag != null ? flag.value() : '\0',
+                flag != null ? flag.alternative() : "", par.isAnnotationPresent(Optional.class),
+                defaultValue != null ? defaultValue.value() : null);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public Class<?> getElementType() {
+        return elementType;
+    }
+
+    public boolean isMeta() {
+        return meta;
+    }
+
+    /***
+     * @return true if the parameter is annotated with @{@link Piped}.
+     */
+    public boolean isPiped() {
+        return piped;
+    }
+
+    public boolean isFlag() {
+        return flag != '\0';
+    }
+
+    public char getFlag() {
+        return flag;
+    }
+
+    public String getAlternative() {
+        return alternative;
+    }
+
+    /***
+     * @return true if the parameter is annotated with @{@link Optional}.
+     */
+    public boolean isOptional() {
+        return optional;
+    }
+
+    /***
+     * @return the value of the @{@link DefaultValue} or null if there is none.
+     */
+    public String getDefaultValue() {
+        return defaultValue;
+    }
+}
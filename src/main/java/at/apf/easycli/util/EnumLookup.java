@@ -0,0 +1,124 @@
+package at.apf.easycli.util;
+
+import at.apf.easycli.annotation.Alias;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/***
+ * Case insensitive lookup table of the constants of an enum, including their @{@link Alias} names. It is built once
+ * per enum, so resolving an argument is a single hash lookup instead of a scan over all constants. Constants whose
+ * names differ only by case are matched exactly, other spellings resolve to the first declared of them.
+ * @param <E> the enum type.
+ */
+final class EnumLookup<E extends Enum<E>> {
+
+    private final Class<E> enumType;
+    private final Map<String, E> byName = new HashMap<>();
+    /** Constants whose names differ only by case, by their exact name. */
+    private final Map<String, E> exactNames = new HashMap<>();
+    /** All lower case names and aliases in sorted order, to resolve prefixes by a binary search. */
+    private final String[] sortedNames;
+    private final String validValues;
+
+    EnumLookup(Class<E> enumType) {
+        this.enumType = enumType;
+        E[] constants = enumType.getEnumConstants();
+        StringBuilder sb = new StringBuilder();
+        for (E constant: constants) {
+            E existing = byName.putIfAbsent(normalize(constant.name()), constant);
+            if (existing != null) {
+                exactNames.put(existing.name(), existing);
+                exactNames.put(constant.name(), constant);
+            }
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(constant.name());
+        }
+        for (E constant: constants) {
+            Alias alias = aliasOf(constant);
+            if (alias != null) {
+                for (String name: alias.value()) {
+                    add(normalize(name), constant);
+                }
+            }
+        }
+        this.sortedNames = byName.keySet().toArray(new String[0]);
+        Arrays.sort(sortedNames);
+        this.validValues = sb.toString();
+    }
+
+    /***
+     * @param enumType the enum type.
+     * @return the lookup table of the enum.
+     */
+    @SuppressWarnings("unchecked")
+    static <E extends Enum<E>> EnumLookup<E> of(Class<?> enumType) {
+        return new EnumLookup<>((Class<E>) enumType);
+    }
+
+    private void add(String name, E constant) {
+        E existing = byName.putIfAbsent(name, constant);
+        if (existing != null && existing != constant) {
+            throw new IllegalArgumentException("'" + name + "' is ambiguous in the enum '" + enumType.getName()
+                    + "', it names " + existing.name() + " and " + constant.name());
+        }
+    }
+
+    private Alias aliasOf(E constant) {
+        try {
+            return enumType.getField(constant.name()).getAnnotation(Alias.class);
+        } catch (NoSuchFieldException e) {
+            return null;
+        }
+    }
+
+    /***
+     * Resolves the constant for the argument.
+     * @param str name or alias of the constant, case insensitive.
+     * @param prefixes if true, a prefix which matches only one constant resolves to this constant.
+     * @return the constant.
+     * @throws IllegalArgumentException if no constant or more than one matches.
+     */
+    E lookup(String str, boolean prefixes) {
+        E constant = exactNames.isEmpty() ? null : exactNames.get(str);
+        if (constant != null) {
+            return constant;
+        }
+        String name = normalize(str);
+        constant = byName.get(name);
+        if (constant != null) {
+            return constant;
+        }
+        if (prefixes && !name.isEmpty()) {
+            constant = lookupPrefix(name);
+            if (constant != null) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("'" + str + "' is not an entity in the enum '" + enumType.getName()
+                + "'. Valid values are: " + validValues);
+    }
+
+    private E lookupPrefix(String prefix) {
+        int i = Arrays.binarySearch(sortedNames, prefix);
+        // the prefix itself is not a name, so the search yields the insertion point
+        i = -i - 1;
+        E found = null;
+        for (; i < sortedNames.length && sortedNames[i].startsWith(prefix); i++) {
+            E constant = byName.get(sortedNames[i]);
+            if (found != null && found != constant) {
+                return null;
+            }
+            found = constant;
+        }
+        return found;
+    }
+
+    private static String normalize(String str) {
+        return str.toLowerCase(Locale.ROOT);
+    }
+}
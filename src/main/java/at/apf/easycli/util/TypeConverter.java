@@ -0,0 +1,16 @@
+package at.apf.easycli.util;
+
+/***
+ * Converts a command argument to the type of a command parameter.
+ * @param <T> the type the argument gets converted to.
+ */
+@FunctionalInterface
+public interface TypeConverter<T> {
+
+    /***
+     * @param str the argument in string representation.
+     * @return the converted argument.
+     * @throws RuntimeException if the argument can't be converted, e.g. a {@link NumberFormatException}.
+     */
+    T convert(String str);
+}
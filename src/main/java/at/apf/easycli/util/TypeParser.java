@@ -1,55 +1,193 @@
 package at.apf.easycli.util;
 
 import java.lang.reflect.Parameter;
-import java.util.EnumSet;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TypeParser {
 
+    private static final ClassValue<EnumLookup<?>> ENUM_LOOKUPS = new ClassValue<EnumLookup<?>>() {
+        @Override
+        protected EnumLookup<?> computeValue(Class<?> type) {
+            return EnumLookup.of(type);
+        }
+    };
+
+    private final Map<Class<?>, TypeConverter<?>> converters = new ConcurrentHashMap<>();
+    private final Map<Class<?>, TypeConverter<?>> enumConverters = new ConcurrentHashMap<>();
+    private final Set<Class<?>> registered = ConcurrentHashMap.newKeySet();
+    private volatile boolean enumPrefixes;
+
+    public TypeParser() {
+        converters.put(char.class, this::toChar);
+        converters.put(int.class, this::toInt);
+        converters.put(long.class, this::toLong);
+        converters.put(float.class, this::toFloat);
+        converters.put(double.class, this::toDouble);
+        converters.put(boolean.class, this::toBool);
+        converters.put(Character.class, this::toChar);
+        converters.put(Integer.class, this::toInt);
+        converters.put(Long.class, this::toLong);
+        converters.put(Float.class, this::toFloat);
+        converters.put(Double.class, this::toDouble);
+        converters.put(Boolean.class, this::toBool);
+        converters.put(String.class, str -> str);
+        converters.put(BigInteger.class, BigInteger::new);
+        converters.put(BigDecimal.class, BigDecimal::new);
+        converters.put(UUID.class, UUID::fromString);
+        converters.put(URI.class, URI::create);
+        converters.put(Path.class, Paths::get);
+        converters.put(Instant.class, Instant::parse);
+        converters.put(Duration.class, Duration::parse);
+        converters.put(LocalDate.class, LocalDate::parse);
+        converters.put(LocalTime.class, LocalTime::parse);
+        converters.put(LocalDateTime.class, LocalDateTime::parse);
+    }
+
+    /***
+     * Creates a parser with the registered converters and the enum prefix setting of another parser. Converters
+     * and settings changed on one of the parsers afterwards don't affect the other one.
+     * @param other the parser to copy.
+     */
+    public TypeParser(TypeParser other) {
+        converters.putAll(other.converters);
+        registered.addAll(other.registered);
+        enumPrefixes = other.enumPrefixes;
+    }
+
     public boolean isValidType(Class type) {
-        return type.equals(int.class) || type.equals(long.class) || type.equals(float.class)
-                || type.equals(double.class) || type.equals(boolean.class) || type.equals(String.class)
-                || type.equals(char.class) || type.isEnum()
+        return converterFor(type) != null
                 || (type.isArray() && isValidType(type.getComponentType()) && !type.getComponentType().isArray());
     }
 
+    /***
+     * Registers a converter for a custom type, so it can be used for command parameters. Replaces the converter of
+     * the type if there is one already.
+     * @param type the parameter type.
+     * @param converter converter which converts the arguments to the type.
+     * @param <T> the parameter type.
+     */
+    public <T> void registerConverter(Class<T> type, TypeConverter<? extends T> converter) {
+        converters.put(type, converter);
+        registered.add(type);
+    }
+
+    /***
+     * @param type the parameter type.
+     * @return true if a converter was registered for the type with {@link #registerConverter(Class, TypeConverter)},
+     *         so its arguments must not be parsed by a built-in shortcut.
+     */
+    public boolean hasRegisteredConverter(Class<?> type) {
+        return registered.contains(type);
+    }
+
+    /***
+     * Enables or disables the matching of enum constants by a unique prefix of their name or alias (e.g. "st" for
+     * STONE is ambiguous with STEEL, "sto" is not). Disabled by default.
+     * @param enumPrefixes true to enable prefix matching.
+     */
+    public void setEnumPrefixes(boolean enumPrefixes) {
+        this.enumPrefixes = enumPrefixes;
+    }
+
+    /***
+     * Resolves the converter for arguments of the given type.
+     * @param type the parameter type.
+     * @return the converter or null if the type is not supported.
+     * @throws IllegalArgumentException if the type is an enum with ambiguous @{@link at.apf.easycli.annotation.Alias}
+     *         names.
+     */
+    @SuppressWarnings("unchecked")
+    public TypeConverter<?> converterFor(Class<?> type) {
+        TypeConverter<?> converter = converters.get(type);
+        if (converter == null && type.isEnum()) {
+            EnumLookup<?> lookup = ENUM_LOOKUPS.get(type);
+            converter = enumConverters.computeIfAbsent(type, t -> str -> lookup.lookup(str, enumPrefixes));
+        }
+        return converter;
+    }
+
     /***
      * Retunrs the default value for an optional {@link Parameter}.
      * @param par the parameter to find out the default value.
      * @return the default value for the par's type.
      */
     public Object defaultValue(Parameter par) {
-        if (par.getType().equals(boolean.class)) {
+        return defaultValue(par.getType());
+    }
+
+    /***
+     * Returns the value of an optional parameter of the given type which is missing in the command.
+     * @param type the parameter type.
+     * @return the default value for the type.
+     */
+    public Object defaultValue(Class<?> type) {
+        if (type.equals(boolean.class)) {
             return false;
-        } else if (par.getType().equals(int.class) || par.getType().equals(long.class)
-                || par.getType().equals(char.class)) {
+        } else if (type.equals(int.class)) {
             return 0;
-        } else if (par.getType().equals(float.class) || par.getType().equals(double.class)) {
+        } else if (type.equals(long.class)) {
+            return 0L;
+        } else if (type.equals(char.class)) {
+            return '\0';
+        } else if (type.equals(float.class)) {
+            return 0.0f;
+        } else if (type.equals(double.class)) {
             return 0.0;
+        } else if (type.equals(Optional.class)) {
+            return Optional.empty();
+        } else if (type.equals(Set.class)) {
+            return Collections.emptySet();
+        } else if (type.equals(List.class) || type.equals(Collection.class)) {
+            return Collections.emptyList();
         } else {
             return null;
         }
     }
 
-    public Object parseType(Class type, String str) {
-        if (type.equals(char.class)) {
-            return toChar(str);
-        } else if (type.equals(int.class)) {
-            return toInt(str);
-        } else if (type.equals(float.class)) {
-            return toFloat(str);
-        } else  if (type.equals(double.class)) {
-            return toDouble(str);
-        } else if (type.equals(long.class)) {
-            return toLong(str);
-        } else if (type.equals(String.class)) {
-            return str;
-        } else if (type.equals(boolean.class)) {
-            return toBool(str);
-        } else if (type.isEnum()) {
-            return toEnum(type, str);
-        } else {
+    /***
+     * @param type the parameter type.
+     * @return true if the type is a List, Set or Collection, which is filled with the remaining arguments.
+     */
+    public static boolean isCollectionType(Class<?> type) {
+        return type.equals(List.class) || type.equals(Set.class) || type.equals(Collection.class);
+    }
+
+    /***
+     * Reads the element type of a generic parameter like List&lt;Integer&gt; or Optional&lt;String&gt;.
+     * @param par the parameter.
+     * @return the element type or null if the parameter has no single class as type argument.
+     */
+    public static Class<?> elementType(Parameter par) {
+        Type type = par.getParameterizedType();
+        if (!(type instanceof ParameterizedType)) {
             return null;
         }
+        Type[] typeArguments = ((ParameterizedType) type).getActualTypeArguments();
+        return typeArguments.length == 1 && typeArguments[0] instanceof Class ? (Class<?>) typeArguments[0] : null;
+    }
+
+    public Object parseType(Class type, String str) {
+        TypeConverter<?> converter = converterFor(type);
+        return converter == null ? null : converter.convert(str);
     }
 
     public char toChar(String str) {
@@ -76,12 +214,8 @@ public class TypeParser {
         return Boolean.parseBoolean(str);
     }
 
+    @SuppressWarnings("unchecked")
     public <E extends Enum<E>> E toEnum(Class<E> enumType, String str) {
-        for (E enumEntity: EnumSet.allOf(enumType)) {
-            if (enumEntity.name().equalsIgnoreCase(str)) {
-                return enumEntity;
-            }
-        }
-        throw new IllegalArgumentException("'" + str + "' is not an entity in the enum '" + enumType.getName() + "'");
+        return ((EnumLookup<E>) ENUM_LOOKUPS.get(enumType)).lookup(str, enumPrefixes);
     }
 }
@@ -0,0 +1,106 @@
+package at.apf.easycli;
+
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.exception.CommandNotFoundException;
+import at.apf.easycli.impl.EasyEngine;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+public class CliEngineTest {
+
+    /***
+     * Implements only the methods every engine had to implement before the default methods were added.
+     */
+    private static class MinimalEngine implements CliEngine {
+        private final EasyEngine engine = new EasyEngine();
+
+        @Override
+        public void register(Object obj) {
+            engine.register(obj);
+        }
+
+        @Override
+        public Object parse(String cmd) throws Exception {
+            return engine.parse(cmd);
+        }
+
+        @Override
+        public Object parse(String cmd, Object... metadata) throws Exception {
+            return engine.parse(cmd, metadata);
+        }
+
+        @Override
+        public String listCommands() {
+            return engine.listCommands();
+        }
+
+        @Override
+        public String usage(String cmd) {
+            return engine.usage(cmd);
+        }
+    }
+
+    private final CliEngine engine = new MinimalEngine();
+
+    private final Object commands = new Object() {
+        @Command("/add")
+        int add(int a, int b) {
+            return a + b;
+        }
+
+        @Command("/fail")
+        void fail() {
+            throw new IllegalStateException("failed");
+        }
+    };
+
+    @Test
+    public void registerLazy_shouldRegisterRightAway() throws Exception {
+        engine.register(Object.class, () -> commands);
+        engine.validate();
+        Assert.assertEquals(5, engine.parse("/add 2 3"));
+    }
+
+    @Test
+    public void parseAll_shouldReturnResultPerCommand() {
+        engine.register(commands);
+        List<CommandResult> results = engine.parseAll(Arrays.asList("/add 1 2", "/fail", "/sub"));
+        Assert.assertEquals(3, results.get(0).getValue());
+        Assert.assertTrue(results.get(1).getError() instanceof IllegalStateException);
+        Assert.assertTrue(results.get(2).getError() instanceof CommandNotFoundException);
+        Assert.assertEquals(3, results.get(2).getLine());
+    }
+
+    @Test
+    public void parseAllParallel_shouldReturnResultPerCommand() {
+        engine.register(commands);
+        List<CommandResult> results = engine.parseAllParallel(Arrays.asList("/add 1 2", "/add 3 4"),
+                ForkJoinPool.commonPool());
+        Assert.assertEquals(7, results.get(1).getValue());
+    }
+
+    @Test
+    public void parseAsync_shouldCompleteWithResultOrCause() throws Exception {
+        engine.register(commands);
+        Assert.assertEquals(3, engine.parseAsync("/add 1 2").get());
+        CompletableFuture<Object> failed = engine.parseAsync("/fail");
+        Assert.assertTrue(failed.isDone());
+        try {
+            failed.get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void unregister_shouldThrowUnsupportedOperationException() {
+        engine.unregister(commands);
+    }
+}
@@ -59,4 +59,42 @@ public class CliSplitterTest {
         splitter.split("/bla \"tra kla wa na");
     }
 
+    @Test
+    public void splitEmptyQuotes_shouldReturnEmptyPart() {
+        List<String> result = splitter.split("/bla \"\" na");
+        Assert.assertEquals(3, result.size());
+        Assert.assertEquals("", result.get(1));
+        Assert.assertEquals("na", result.get(2));
+    }
+
+    @Test
+    public void tokenize_shouldReturnOffsetsWithoutQuotes() {
+        String cmd = "  /bla \"tra \\\"kla\\\"\" na ";
+        Tokens tokens = splitter.tokenize(cmd);
+        Assert.assertEquals(3, tokens.size());
+        Assert.assertEquals(2, tokens.start(0));
+        Assert.assertEquals(6, tokens.end(0));
+        Assert.assertFalse(tokens.isEscaped(0));
+        Assert.assertEquals('t', tokens.charAt(1, 0));
+        Assert.assertTrue(tokens.isEscaped(1));
+        Assert.assertEquals("tra \"kla\"", tokens.get(1));
+        Assert.assertEquals("na", tokens.get(2));
+    }
+
+    @Test
+    public void splitPipeline_shouldSplitOnStandaloneBar() {
+        List<String> result = splitter.splitPipeline("/list users  | /filter active |/count | /sum");
+        Assert.assertEquals(3, result.size());
+        Assert.assertEquals("/list users", result.get(0));
+        Assert.assertEquals("/filter active |/count", result.get(1));
+        Assert.assertEquals("/sum", result.get(2));
+    }
+
+    @Test
+    public void splitPipelineQuoted_shouldNotSplit() {
+        List<String> result = splitter.splitPipeline("/echo \"a | b\" a|b");
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals("/echo \"a | b\" a|b", result.get(0));
+    }
+
 }
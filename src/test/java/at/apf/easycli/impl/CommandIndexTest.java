@@ -0,0 +1,78 @@
+package at.apf.easycli.impl;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class CommandIndexTest {
+
+    private CommandIndex<Integer> index = new CommandIndex<>();
+
+    @Before
+    public void setup() {
+        index.put("/repo", 1);
+        index.put("/repo add", 2);
+        index.put("/repo archive", 3);
+        index.put("/help", 4);
+    }
+
+    @Test
+    public void lookupSingleWord_shouldWork() {
+        CommandIndex.Match<Integer> match = index.lookup("/help me", false);
+        Assert.assertEquals(4, match.getValue().intValue());
+        Assert.assertEquals("/help", match.getCommand());
+        Assert.assertEquals(5, match.getEnd());
+    }
+
+    @Test
+    public void lookupMultipleWords_shouldReturnLongestMatch() {
+        CommandIndex.Match<Integer> match = index.lookup("  /repo   add x", false);
+        Assert.assertEquals(2, match.getValue().intValue());
+        Assert.assertEquals(13, match.getEnd());
+        Assert.assertEquals(1, index.lookup("/repo list", false).getValue().intValue());
+    }
+
+    @Test
+    public void lookupPrefixWithoutBoundary_shouldReturnNull() {
+        Assert.assertNull(index.lookup("/helpme", false));
+        Assert.assertNull(index.lookup("/he", false));
+    }
+
+    @Test
+    public void lookupUniqueAbbreviation_shouldWork() {
+        Assert.assertEquals(4, index.lookup("/he", true).getValue().intValue());
+        Assert.assertEquals(3, index.lookup("/repo arc x", true).getValue().intValue());
+    }
+
+    @Test
+    public void lookupAmbiguousAbbreviation_shouldFallBackToExactMatch() {
+        CommandIndex.Match<Integer> match = index.lookup("/repo a", true);
+        Assert.assertEquals(1, match.getValue().intValue());
+        Assert.assertEquals(5, match.getEnd());
+    }
+
+    @Test
+    public void lookupQuotedCommand_shouldWork() {
+        CommandIndex.Match<Integer> match = index.lookup(" \"/repo add\" x", false);
+        Assert.assertEquals(2, match.getValue().intValue());
+        Assert.assertEquals(12, match.getEnd());
+        Assert.assertEquals(1, index.lookup("\"/repo\" add", false).getValue().intValue());
+        Assert.assertEquals(4, index.lookup("\"/he\"", true).getValue().intValue());
+    }
+
+    @Test
+    public void lookupMalformedQuotedCommand_shouldReturnNull() {
+        Assert.assertNull(index.lookup("\"/repo add x\"", false));
+        Assert.assertNull(index.lookup("\"/repo\"add", false));
+        Assert.assertNull(index.lookup("\"/help", false));
+    }
+
+    @Test
+    public void candidates_shouldReturnSimilarCommands() {
+        Assert.assertEquals(Arrays.asList("/repo", "/repo add", "/repo archive"), index.candidates("/rep", 5));
+        Assert.assertEquals(Arrays.asList("/repo add", "/repo archive"), index.candidates("/repo ax", 5));
+        Assert.assertTrue(index.candidates("/xyz", 5).isEmpty());
+    }
+}
@@ -0,0 +1,135 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.CliEngine;
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.exception.CommandNotFoundException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class ConcurrentEasyEngineTest {
+
+    private CliEngine engine = new ConcurrentEasyEngine();
+
+    public static class Counter {
+        private final int id;
+
+        Counter(int id) {
+            this.id = id;
+        }
+
+        @Command("/id")
+        int id(int a) {
+            return id + a;
+        }
+    }
+
+    @Test
+    public void unregister_shouldRemoveCommands() throws Exception {
+        Object commands = new Object() {
+            @Command("/add")
+            int add(int a, int b) {
+                return a + b;
+            }
+        };
+        engine.register(commands);
+        Assert.assertEquals(5, engine.parse("/add 2 3"));
+        engine.unregister(commands);
+        try {
+            engine.parse("/add 2 3");
+            Assert.fail();
+        } catch (CommandNotFoundException e) {
+            // expected
+        }
+        engine.register(commands);
+        Assert.assertEquals(5, engine.parse("/add 2 3"));
+    }
+
+    @Test
+    public void parseWhileRegistering_shouldWork() throws Exception {
+        engine.register(new Object() {
+            @Command("/add")
+            int add(int a, int b) {
+                return a + b;
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    Counter counter = new Counter(i);
+                    engine.register(counter);
+                    Assert.assertEquals(i + 1, engine.parse("/id 1"));
+                    engine.unregister(counter);
+                }
+                return null;
+            }));
+            for (int t = 1; t < 8; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        Assert.assertEquals(i + thread, engine.parse("/add " + i + " " + thread));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future: futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void registerConcurrently_shouldNotLoseCommands() throws Exception {
+        List<Object> commands = new ArrayList<>();
+        commands.add(new Object() {
+            @Command("/a")
+            String a() {
+                return "a";
+            }
+        });
+        commands.add(new Object() {
+            @Command("/b")
+            String b() {
+                return "b";
+            }
+        });
+        commands.add(new Object() {
+            @Command("/c")
+            String c() {
+                return "c";
+            }
+        });
+        commands.add(new Object() {
+            @Command("/d")
+            String d() {
+                return "d";
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(commands.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Object obj: commands) {
+                futures.add(executor.submit(() -> engine.register(obj)));
+            }
+            for (Future<?> future: futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals("a", engine.parse("/a"));
+        Assert.assertEquals("b", engine.parse("/b"));
+        Assert.assertEquals("c", engine.parse("/c"));
+        Assert.assertEquals("d", engine.parse("/d"));
+    }
+}
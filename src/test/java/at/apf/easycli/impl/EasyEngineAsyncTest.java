@@ -0,0 +1,148 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.annotation.Piped;
+import at.apf.easycli.exception.CommandNotFoundException;
+import at.apf.easycli.exception.MalformedCommandException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EasyEngineAsyncTest {
+
+    private EasyEngine engine = new EasyEngine();
+    private ExecutorService io = Executors.newSingleThreadExecutor(r -> new Thread(r, "io"));
+
+    @After
+    public void tearDown() {
+        io.shutdownNow();
+    }
+
+    @Test
+    public void parseAsync_shouldCompleteWithResult() throws Exception {
+        engine.register(new Object() {
+            @Command("/add")
+            int add(int a, int b) {
+                return a + b;
+            }
+        });
+        Assert.assertEquals(5, engine.parseAsync("/add 2 3").get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void parseAsyncWithExecutor_shouldRunOnExecutor() throws Exception {
+        engine.registerExecutor("io", io);
+        engine.register(new Object() {
+            @Command(value = "/thread", executor = "io")
+            String thread() {
+                return Thread.currentThread().getName();
+            }
+        });
+        Assert.assertEquals("io", engine.parseAsync("/thread").get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void parseAsyncPipeline_shouldRunOnExecutorOfFirstCommand() throws Exception {
+        engine.setPipelines(true);
+        engine.registerExecutor("io", io);
+        engine.register(new Object() {
+            @Command(value = "/thread", executor = "io")
+            String thread() {
+                return Thread.currentThread().getName();
+            }
+
+            @Command("/upper")
+            String upper(@Piped String input) {
+                return input.toUpperCase() + "@" + Thread.currentThread().getName();
+            }
+        });
+        Assert.assertEquals("IO@io", engine.parseAsync("/thread | /upper").get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void parseAsyncWithParsingError_shouldFailWithoutExecutor() throws Exception {
+        AtomicInteger executed = new AtomicInteger();
+        engine.setDefaultExecutor(r -> {
+            executed.incrementAndGet();
+            r.run();
+        });
+        engine.register(new Object() {
+            @Command("/add")
+            int add(int a, int b) {
+                return a + b;
+            }
+        });
+        CompletableFuture<Object> malformed = engine.parseAsync("/add 2");
+        CompletableFuture<Object> notFound = engine.parseAsync("/sub 2 3");
+        Assert.assertTrue(malformed.isDone());
+        Assert.assertTrue(notFound.isDone());
+        assertFailsWith(MalformedCommandException.class, malformed);
+        assertFailsWith(CommandNotFoundException.class, notFound);
+        Assert.assertEquals(0, executed.get());
+    }
+
+    @Test
+    public void parseAsyncSpecializedWithInvalidArgument_shouldFailWithoutExecutor() throws Exception {
+        AtomicInteger executed = new AtomicInteger();
+        engine = new EasyEngine(InvocationStrategy.SPECIALIZED);
+        engine.setDefaultExecutor(r -> {
+            executed.incrementAndGet();
+            r.run();
+        });
+        engine.register(new Object() {
+            @Command("/add")
+            int add(int a, int b) {
+                return a + b;
+            }
+        });
+        CompletableFuture<Object> malformed = engine.parseAsync("/add 2 x");
+        Assert.assertTrue(malformed.isDone());
+        assertFailsWith(NumberFormatException.class, malformed);
+        Assert.assertEquals(0, executed.get());
+    }
+
+    @Test
+    public void parseAsyncWithThrowingCommand_shouldFailWithCause() throws Exception {
+        engine.register(new Object() {
+            @Command("/fail")
+            void fail() {
+                throw new IllegalStateException("failed");
+            }
+        });
+        assertFailsWith(IllegalStateException.class, engine.parseAsync("/fail"));
+    }
+
+    @Test
+    public void virtualThreadExecutor_shouldRunCommands() throws Exception {
+        ExecutorService executor = CommandExecutors.newVirtualThreadExecutor();
+        try {
+            engine.setDefaultExecutor(executor);
+            engine.register(new Object() {
+                @Command("/hello")
+                String hello() {
+                    return "hello";
+                }
+            });
+            Assert.assertEquals("hello", engine.parseAsync("/hello").get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertFailsWith(Class<? extends Throwable> expected, CompletableFuture<Object> future)
+            throws Exception {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertEquals(expected, e.getCause().getClass());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.CliEngine;
+import at.apf.easycli.CommandResult;
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.annotation.Meta;
+import at.apf.easycli.exception.CommandNotFoundException;
+import at.apf.easycli.exception.MalformedCommandException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class EasyEngineBatchTest {
+
+    private CliEngine engine = new EasyEngine();
+
+    @Before
+    public void setup() {
+        engine.register(new Object() {
+            @Command("/add")
+            int add(int a, int b, @Meta String suffix) {
+                return a + b;
+            }
+
+            @Command("/div")
+            int div(int a, int b) {
+                return a / b;
+            }
+        });
+    }
+
+    @Test
+    public void parseAll_shouldReturnResultsAndErrors() {
+        List<CommandResult> results = engine.parseAll(Arrays.asList("/add 1 2", "/add 1", "/mul 2 3", "/div 4 0",
+                "/div 4 2"), "meta");
+        Assert.assertEquals(5, results.size());
+        Assert.assertTrue(results.get(0).isSuccess());
+        Assert.assertEquals(3, results.get(0).getValue());
+        Assert.assertEquals(MalformedCommandException.class, results.get(1).getError().getClass());
+        Assert.assertEquals(CommandNotFoundException.class, results.get(2).getError().getClass());
+        Assert.assertEquals(ArithmeticException.class, results.get(3).getError().getClass());
+        Assert.assertEquals(2, results.get(4).getValue());
+        Assert.assertEquals(5, results.get(4).getLine());
+        Assert.assertEquals("/div 4 2", results.get(4).getCommand());
+    }
+
+    @Test
+    public void parseAllParallel_shouldKeepOrder() {
+        List<String> cmds = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            cmds.add(i % 100 == 0 ? "/div " + i + " 0" : "/add " + i + " 1");
+        }
+        List<CommandResult> results = engine.parseAllParallel(cmds, ForkJoinPool.commonPool(), "meta");
+        Assert.assertEquals(2000, results.size());
+        for (int i = 0; i < 2000; i++) {
+            if (i % 100 == 0) {
+                Assert.assertFalse(results.get(i).isSuccess());
+            } else {
+                Assert.assertEquals(i + 1, results.get(i).getValue());
+            }
+        }
+    }
+}
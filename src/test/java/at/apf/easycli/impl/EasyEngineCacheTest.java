@@ -0,0 +1,224 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.annotation.Cacheable;
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.annotation.Meta;
+import at.apf.easycli.annotation.Piped;
+import at.apf.easycli.exception.MalformedMethodException;
+import at.apf.easycli.metrics.CacheStats;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class EasyEngineCacheTest {
+
+    public static class Lookups {
+        int calls;
+
+        @Cacheable(maxSize = 2)
+        @Command("/square")
+        int square(int a) {
+            calls++;
+            return a * a;
+        }
+
+        @Cacheable
+        @Command("/whois")
+        String whois(@Meta String user, String name) {
+            calls++;
+            return user + ":" + name;
+        }
+
+        @Cacheable(includeMeta = true)
+        @Command("/greet")
+        String greet(@Meta String user, String name) {
+            calls++;
+            return user + ":" + name;
+        }
+
+        @Cacheable(expireAfter = 1, unit = TimeUnit.NANOSECONDS)
+        @Command("/now")
+        long now() {
+            calls++;
+            return calls;
+        }
+
+        @Cacheable
+        @Command("/nothing")
+        String nothing(String[] args) {
+            calls++;
+            return null;
+        }
+
+        @Command("/plain")
+        int plain() {
+            return ++calls;
+        }
+    }
+
+    private Lookups lookups = new Lookups();
+
+    private EasyEngine engine(InvocationStrategy strategy) {
+        EasyEngine engine = new EasyEngine(strategy);
+        engine.register(lookups);
+        return engine;
+    }
+
+    @Test
+    public void parseCacheable_shouldInvokeOnce() throws Exception {
+        EasyEngine engine = engine(InvocationStrategy.METHOD_HANDLE);
+        Assert.assertEquals(16, engine.parse("/square 4"));
+        Assert.assertEquals(16, engine.parse("/square  4"));
+        Assert.assertEquals(1, lookups.calls);
+        Assert.assertEquals(9, engine.parse("/square 3"));
+        Assert.assertEquals(2, lookups.calls);
+    }
+
+    @Test
+    public void parseCacheableWithReflection_shouldInvokeOnce() throws Exception {
+        EasyEngine engine = engine(InvocationStrategy.REFLECTION);
+        engine.parse("/square 4");
+        engine.parse("/square 4");
+        Assert.assertEquals(1, lookups.calls);
+    }
+
+    @Test
+    public void parseCacheableWithSpecializedStrategy_shouldInvokeOnce() throws Exception {
+        EasyEngine engine = engine(InvocationStrategy.SPECIALIZED);
+        engine.parse("/square 4");
+        engine.parse("/square 4");
+        Assert.assertEquals(1, lookups.calls);
+    }
+
+    @Test
+    public void parseCacheableFull_shouldEvictLeastRecentlyUsed() throws Exception {
+        EasyEngine engine = engine(InvocationStrategy.METHOD_HANDLE);
+        engine.parse("/square 1");
+        engine.parse("/square 2");
+        engine.parse("/square 1");
+        engine.parse("/square 3");
+        Assert.assertEquals(3, lookups.calls);
+        engine.parse("/square 1");
+        Assert.assertEquals(3, lookups.calls);
+        engine.parse("/square 2");
+        Assert.assertEquals(4, lookups.calls);
+    }
+
+    @Test
+    public void parseCacheable_shouldIgnoreMeta() throws Exception {
+        EasyEngine engine = engine(InvocationStrategy.METHOD_HANDLE);
+        Assert.assertEquals("alice:bob", engine.parse("/whois bob", "alice"));
+        Assert.assertEquals("alice:bob", engine.parse("/whois bob", "carol"));
+        Assert.assertEquals(1, lookups.calls);
+    }
+
+    @Test
+    public void parseCacheableIncludingMeta_shouldCacheByMeta() throws Exception {
+        EasyEngine engine = engine(InvocationStrategy.METHOD_HANDLE);
+        Assert.assertEquals("alice:bob", engine.parse("/greet bob", "alice"));
+        Assert.assertEquals("carol:bob", engine.parse("/greet bob", "carol"));
+        Assert.assertEquals("alice:bob", engine.parse("/greet bob", "alice"));
+        Assert.assertEquals(2, lookups.calls);
+    }
+
+    @Test
+    public void parseCacheableExpired_shouldInvokeAgain() throws Exception {
+        EasyEngine engine = engine(InvocationStrategy.METHOD_HANDLE);
+        engine.parse("/now");
+        Thread.sleep(1);
+        engine.parse("/now");
+        Assert.assertEquals(2, lookups.calls);
+    }
+
+    @Test
+    public void parseCacheableNullResultAndArray_shouldBeCached() throws Exception {
+        EasyEngine engine = engine(InvocationStrategy.METHOD_HANDLE);
+        Assert.assertNull(engine.parse("/nothing a b"));
+        Assert.assertNull(engine.parse("/nothing a b"));
+        Assert.assertEquals(1, lookups.calls);
+        engine.parse("/nothing a c");
+        Assert.assertEquals(2, lookups.calls);
+    }
+
+    @Test
+    public void invalidate_shouldInvokeAgain() throws Exception {
+        EasyEngine engine = engine(InvocationStrategy.METHOD_HANDLE);
+        engine.parse("/square 4");
+        engine.invalidate("/square");
+        engine.parse("/square 4");
+        engine.parse("/whois bob", "alice");
+        engine.invalidateAll();
+        engine.parse("/square 4");
+        engine.parse("/whois bob", "alice");
+        Assert.assertEquals(5, lookups.calls);
+    }
+
+    @Test
+    public void cacheStats_shouldCountHitsAndMisses() throws Exception {
+        EasyEngine engine = engine(InvocationStrategy.METHOD_HANDLE);
+        engine.parse("/square 1");
+        engine.parse("/square 1");
+        engine.parse("/square 2");
+        engine.parse("/square 3");
+        CacheStats stats = engine.cacheStats("/square");
+        Assert.assertEquals("/square", stats.getCommand());
+        Assert.assertEquals(1, stats.getHits());
+        Assert.assertEquals(3, stats.getMisses());
+        Assert.assertEquals(1, stats.getEvictions());
+        Assert.assertEquals(2, stats.getSize());
+        Assert.assertEquals(0.25, stats.getHitRate(), 0.0001);
+    }
+
+    @Test
+    public void cacheStatsNotCacheable_shouldReturnNull() {
+        Assert.assertNull(engine(InvocationStrategy.METHOD_HANDLE).cacheStats("/plain"));
+    }
+
+    @Test(expected = MalformedMethodException.class)
+    public void registerCacheableWithoutSize_shouldThrowMalformedMethodException() {
+        new EasyEngine().register(new Object(){
+            @Cacheable(maxSize = 0)
+            @Command("/bla")
+            int bla() {
+                return 0;
+            }
+        });
+    }
+
+    @Test(expected = MalformedMethodException.class)
+    public void registerCacheablePiped_shouldThrowMalformedMethodException() {
+        new EasyEngine().register(new Object(){
+            @Cacheable
+            @Command("/bla")
+            int bla(@Piped Iterator<Object> input) {
+                return 0;
+            }
+        });
+    }
+
+    @Test(expected = MalformedMethodException.class)
+    public void registerCacheableStream_shouldThrowMalformedMethodException() {
+        new EasyEngine().register(new Object(){
+            @Cacheable
+            @Command("/bla")
+            Stream<String> bla() {
+                return Stream.of("a");
+            }
+        });
+    }
+
+    @Test(expected = MalformedMethodException.class)
+    public void registerCacheableIterator_shouldThrowMalformedMethodException() {
+        new EasyEngine().register(new Object(){
+            @Cacheable
+            @Command("/bla")
+            Iterator<String> bla() {
+                return Arrays.asList("a").iterator();
+            }
+        });
+    }
+}
@@ -0,0 +1,283 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.annotation.Cacheable;
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.annotation.Meta;
+import at.apf.easycli.exception.CommandNotFoundException;
+import at.apf.easycli.util.enumeration.Material;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.management.openmbean.KeyAlreadyExistsException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+
+public class EasyEngineCommandSetTest {
+
+    public static class Room {
+        final String name;
+        int calls;
+
+        Room(String name) {
+            this.name = name;
+        }
+
+        @Command("/name")
+        String name(@Meta String user) {
+            return user + "@" + name;
+        }
+
+        @Command("/lang")
+        String lang(Locale locale) {
+            return name + ":" + locale.getCountry();
+        }
+
+        @Command("/add")
+        int add(int a, int b) {
+            return a + b;
+        }
+
+        @Command("/build")
+        String build(Material material) {
+            return name + ":" + material;
+        }
+
+        @Cacheable
+        @Command("/count")
+        int count() {
+            return ++calls;
+        }
+    }
+
+    public static class Admin {
+        @Command("/kick")
+        String kick(String user) {
+            return "kicked " + user;
+        }
+    }
+
+    private CommandSet compile(InvocationStrategy strategy) {
+        EasyEngine template = new EasyEngine(strategy);
+        template.registerConverter(Locale.class, Locale::forLanguageTag);
+        template.setAbbreviations(true);
+        return template.compileSet(Room.class, Admin.class);
+    }
+
+    @Test
+    public void newEngine_shouldInvokeOwnTargets() throws Exception {
+        for (InvocationStrategy strategy: InvocationStrategy.values()) {
+            CommandSet set = compile(strategy);
+            EasyEngine kitchen = set.newEngine(new Room("kitchen"), new Admin());
+            EasyEngine garden = set.newEngine(new Room("garden"), new Admin());
+            Assert.assertEquals("bob@kitchen", kitchen.parse("/name", "bob"));
+            Assert.assertEquals("bob@garden", garden.parse("/name", "bob"));
+            Assert.assertEquals("garden:AT", garden.parse("/lang de-AT"));
+            Assert.assertEquals(5, kitchen.parse("/add 2 3"));
+            Assert.assertEquals("kicked eve", garden.parse("/ki eve"));
+        }
+    }
+
+    @Test
+    public void newEngine_shouldHaveOwnResultCaches() throws Exception {
+        CommandSet set = compile(InvocationStrategy.METHOD_HANDLE);
+        Room kitchen = new Room("kitchen");
+        Room garden = new Room("garden");
+        EasyEngine kitchenEngine = set.newEngine(kitchen, new Admin());
+        EasyEngine gardenEngine = set.newEngine(garden, new Admin());
+        kitchenEngine.parse("/count");
+        kitchenEngine.parse("/count");
+        gardenEngine.parse("/count");
+        Assert.assertEquals(1, kitchen.calls);
+        Assert.assertEquals(1, garden.calls);
+        Assert.assertEquals(1, kitchenEngine.cacheStats("/count").getHits());
+        Assert.assertEquals(0, gardenEngine.cacheStats("/count").getHits());
+    }
+
+    @Test
+    public void register_shouldOverrideSharedCommandForOneEngine() throws Exception {
+        CommandSet set = compile(InvocationStrategy.METHOD_HANDLE);
+        EasyEngine kitchen = set.newEngine(new Room("kitchen"), new Admin());
+        EasyEngine garden = set.newEngine(new Room("garden"), new Admin());
+        kitchen.register(new Object() {
+            @Command("/kick")
+            String kick(String user) {
+                return "can't kick " + user;
+            }
+        });
+        Assert.assertEquals("can't kick eve", kitchen.parse("/kick eve"));
+        Assert.assertEquals("kicked eve", garden.parse("/kick eve"));
+    }
+
+    @Test
+    public void registerAndUnregisterOnSetEngine_shouldOverlaySharedCommands() throws Exception {
+        CommandSet set = compile(InvocationStrategy.METHOD_HANDLE);
+        Admin admin = new Admin();
+        EasyEngine kitchen = set.newEngine(new Room("kitchen"), admin);
+        EasyEngine garden = set.newEngine(new Room("garden"), admin);
+        kitchen.register(new Object() {
+            @Command("/add more")
+            int addMore(int a) {
+                return a + 100;
+            }
+        });
+        kitchen.unregister(admin);
+        Assert.assertEquals(101, kitchen.parse("/add more 1"));
+        Assert.assertEquals(3, kitchen.parse("/add 1 2"));
+        Assert.assertTrue(kitchen.listCommands().contains("/add more"));
+        Assert.assertFalse(kitchen.listCommands().contains("/kick"));
+        Assert.assertTrue(garden.listCommands().contains("/kick"));
+        try {
+            kitchen.parse("/kick eve");
+            Assert.fail();
+        } catch (CommandNotFoundException e) {
+            Assert.assertEquals("Command '/kick' not registered", e.getMessage());
+        }
+        try {
+            kitchen.parse("/nme");
+            Assert.fail();
+        } catch (CommandNotFoundException e) {
+            Assert.assertTrue(e.getMessage().endsWith("Did you mean /name?"));
+        }
+    }
+
+    @Test(expected = KeyAlreadyExistsException.class)
+    public void registerTwice_shouldThrowKeyAlreadyExistsException() {
+        EasyEngine kitchen = compile(InvocationStrategy.METHOD_HANDLE).newEngine(new Room("kitchen"), new Admin());
+        Object commands = new Object() {
+            @Command("/kick")
+            void kick() {
+
+            }
+        };
+        kitchen.register(commands);
+        kitchen.register(commands);
+    }
+
+    @Test
+    public void unregister_shouldRemoveSharedCommandsOfOneEngine() throws Exception {
+        CommandSet set = compile(InvocationStrategy.METHOD_HANDLE);
+        Admin admin = new Admin();
+        EasyEngine kitchen = set.newEngine(new Room("kitchen"), admin);
+        EasyEngine garden = set.newEngine(new Room("garden"), admin);
+        kitchen.unregister(admin);
+        try {
+            kitchen.parse("/kick eve");
+            Assert.fail();
+        } catch (CommandNotFoundException e) {
+            Assert.assertEquals("kicked eve", garden.parse("/kick eve"));
+        }
+    }
+
+    @Test
+    public void getTypes_shouldReturnClassesInOrder() {
+        Assert.assertEquals(Arrays.asList(Room.class, Admin.class),
+                compile(InvocationStrategy.METHOD_HANDLE).getTypes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void newEngineWithWrongTargets_shouldThrowIllegalArgumentException() {
+        compile(InvocationStrategy.METHOD_HANDLE).newEngine(new Admin(), new Room("kitchen"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void newEngineWithMissingTarget_shouldThrowIllegalArgumentException() {
+        compile(InvocationStrategy.METHOD_HANDLE).newEngine(new Room("kitchen"));
+    }
+
+    @Test
+    public void registerConverterOnSetEngine_shouldNotAffectOtherEngines() throws Exception {
+        CommandSet set = compile(InvocationStrategy.METHOD_HANDLE);
+        EasyEngine kitchen = set.newEngine(new Room("kitchen"), new Admin());
+        EasyEngine garden = set.newEngine(new Room("garden"), new Admin());
+        Object country = new Object() {
+            @Command("/country")
+            String country(Locale locale) {
+                return locale.getCountry();
+            }
+        };
+        kitchen.registerConverter(Locale.class, str -> new Locale("", str));
+        kitchen.register(country);
+        garden.register(country);
+        Assert.assertEquals("AT", kitchen.parse("/country AT"));
+        Assert.assertEquals("AT", garden.parse("/country de-AT"));
+        Assert.assertEquals("kitchen:AT", kitchen.parse("/lang AT"));
+        Assert.assertEquals("garden:AT", garden.parse("/lang de-AT"));
+    }
+
+    @Test
+    public void registerExecutorOnSetEngine_shouldNotAffectOtherEngines() throws Exception {
+        EasyEngine template = new EasyEngine();
+        CommandSet set = template.compileSet(Admin.class);
+        EasyEngine kitchen = set.newEngine(new Admin());
+        EasyEngine garden = set.newEngine(new Admin());
+        Object background = new Object() {
+            @Command(value = "/background", executor = "background")
+            String background() {
+                return Thread.currentThread().getName();
+            }
+        };
+        kitchen.registerExecutor("background", runnable -> new Thread(runnable, "kitchen").start());
+        kitchen.register(background);
+        garden.register(background);
+        Assert.assertEquals("kitchen", kitchen.parseAsync("/background").get());
+        try {
+            garden.parseAsync("/background").get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void setEnumPrefixesOnSetEngine_shouldApplyToSharedCommands() throws Exception {
+        for (InvocationStrategy strategy: InvocationStrategy.values()) {
+            CommandSet set = compile(strategy);
+            EasyEngine kitchen = set.newEngine(new Room("kitchen"), new Admin());
+            EasyEngine garden = set.newEngine(new Room("garden"), new Admin());
+            kitchen.setEnumPrefixes(true);
+            Assert.assertEquals("kitchen:STONE", kitchen.parse("/build sto"));
+            try {
+                garden.parse("/build sto");
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                Assert.assertEquals("garden:STONE", garden.parse("/build STONE"));
+            }
+        }
+    }
+
+    @Test
+    public void registerConverterOnSetEngine_shouldApplyToSharedCommands() throws Exception {
+        CommandSet set = compile(InvocationStrategy.SPECIALIZED);
+        EasyEngine kitchen = set.newEngine(new Room("kitchen"), new Admin());
+        EasyEngine garden = set.newEngine(new Room("garden"), new Admin());
+        kitchen.registerConverter(int.class, str -> Integer.parseInt(str, 16));
+        Assert.assertEquals(26, kitchen.parse("/add a 10"));
+        Assert.assertEquals(20, garden.parse("/add 10 10"));
+    }
+
+    @Test
+    public void changeTemplateAfterCompileSet_shouldNotAffectSetEngines() throws Exception {
+        EasyEngine template = new EasyEngine();
+        template.registerConverter(Locale.class, Locale::forLanguageTag);
+        CommandSet set = template.compileSet(Room.class, Admin.class);
+        EasyEngine kitchen = set.newEngine(new Room("kitchen"), new Admin());
+        template.setEnumPrefixes(true);
+        template.registerConverter(Locale.class, str -> new Locale("", str));
+        EasyEngine garden = set.newEngine(new Room("garden"), new Admin());
+        for (EasyEngine engine: new EasyEngine[]{kitchen, garden}) {
+            try {
+                engine.parse("/build sto");
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                Assert.assertTrue(engine.parse("/build STONE").toString().endsWith(":STONE"));
+                Assert.assertTrue(engine.parse("/lang de-AT").toString().endsWith(":AT"));
+            }
+        }
+    }
+
+    @Test(expected = KeyAlreadyExistsException.class)
+    public void compileSetWithSameCommandTwice_shouldThrowKeyAlreadyExistsException() {
+        new EasyEngine().compileSet(Admin.class, Admin.class);
+    }
+}
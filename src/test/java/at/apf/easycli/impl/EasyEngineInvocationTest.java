@@ -0,0 +1,122 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.CliEngine;
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.annotation.DefaultValue;
+import at.apf.easycli.annotation.Flag;
+import at.apf.easycli.annotation.Meta;
+import at.apf.easycli.annotation.Optional;
+import at.apf.easycli.exception.MalformedCommandException;
+import at.apf.easycli.util.enumeration.Material;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+
+public class EasyEngineInvocationTest {
+
+    private final Object commands = new Object() {
+        @Command("/add")
+        long add(int a, long b, @Flag('n') boolean negate) {
+            return negate ? -(a + b) : a + b;
+        }
+
+        @Command("/join")
+        String join(char separator, String[] parts) {
+            return String.join(String.valueOf(separator), parts);
+        }
+
+        @Command("/fail")
+        void fail() {
+            throw new IllegalStateException("failed");
+        }
+    };
+
+    @Test
+    public void methodHandleStrategy_shouldWork() throws Exception {
+        CliEngine engine = new EasyEngine(InvocationStrategy.METHOD_HANDLE);
+        engine.register(commands);
+        Assert.assertEquals(-5L, engine.parse("/add 2 3 -n"));
+        Assert.assertEquals("a,b,c", engine.parse("/join , a b c"));
+    }
+
+    @Test
+    public void reflectionStrategy_shouldWork() throws Exception {
+        CliEngine engine = new EasyEngine(InvocationStrategy.REFLECTION);
+        engine.register(commands);
+        Assert.assertEquals(5L, engine.parse("/add 2 3"));
+        Assert.assertEquals("a,b,c", engine.parse("/join , a b c"));
+    }
+
+    @Test
+    public void methodHandleStrategyWithThrowingCommand_shouldThrowInvocationTargetException() throws Exception {
+        CliEngine engine = new EasyEngine(InvocationStrategy.METHOD_HANDLE);
+        engine.register(commands);
+        try {
+            engine.parse("/fail");
+            Assert.fail();
+        } catch (InvocationTargetException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void reflectionStrategyWithThrowingCommand_shouldThrowInvocationTargetException() throws Exception {
+        CliEngine engine = new EasyEngine(InvocationStrategy.REFLECTION);
+        engine.register(commands);
+        try {
+            engine.parse("/fail");
+            Assert.fail();
+        } catch (InvocationTargetException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void specializedStrategy_shouldWork() throws Exception {
+        CliEngine engine = new EasyEngine(InvocationStrategy.SPECIALIZED);
+        engine.register(commands);
+        Assert.assertEquals(-5L, engine.parse("/add 2 3 -n"));
+        Assert.assertEquals("a,b,c", engine.parse("/join , a b c"));
+    }
+
+    @Test
+    public void specializedStrategyWithOptionalsAndMeta_shouldWork() throws Exception {
+        CliEngine engine = new EasyEngine(InvocationStrategy.SPECIALIZED);
+        engine.register(new Object() {
+            @Command("/mix")
+            String mix(@Meta String user, double a, @DefaultValue("7") int b, @Optional Material material,
+                       @Flag('v') boolean verbose) {
+                return user + a + b + material + verbose;
+            }
+        });
+        Assert.assertEquals("bob1.57nullfalse", engine.parse("/mix 1.5", "bob"));
+        Assert.assertEquals("bob2.03STONEtrue", engine.parse("/mix 2 3 stone -v", "bob"));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void specializedStrategyWithInvalidArgument_shouldThrowNumberFormatException() throws Exception {
+        CliEngine engine = new EasyEngine(InvocationStrategy.SPECIALIZED);
+        engine.register(commands);
+        engine.parse("/add 2 x");
+    }
+
+    @Test(expected = MalformedCommandException.class)
+    public void specializedStrategyWithMissingArgument_shouldThrowMalformedCommandException() throws Exception {
+        CliEngine engine = new EasyEngine(InvocationStrategy.SPECIALIZED);
+        engine.register(commands);
+        engine.parse("/add 2");
+    }
+
+    @Test
+    public void specializedStrategyWithThrowingCommand_shouldThrowInvocationTargetException() throws Exception {
+        CliEngine engine = new EasyEngine(InvocationStrategy.SPECIALIZED);
+        engine.register(commands);
+        try {
+            engine.parse("/fail");
+            Assert.fail();
+        } catch (InvocationTargetException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.annotation.Usage;
+import at.apf.easycli.exception.CommandNotFoundException;
+import at.apf.easycli.exception.MalformedMethodException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.management.openmbean.KeyAlreadyExistsException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EasyEngineLazyRegisterTest {
+
+    public static class Calc {
+        @Command("/add")
+        int add(int a, int b) {
+            return a + b;
+        }
+
+        @Command("/neg")
+        @Usage("Negates a number")
+        int neg(int a) {
+            return -a;
+        }
+    }
+
+    public static class Broken {
+        @Command("/broken")
+        void broken(int[] a, int b) {
+
+        }
+    }
+
+    private EasyEngine engine = new EasyEngine();
+    private AtomicInteger created = new AtomicInteger();
+
+    private Calc newCalc() {
+        created.incrementAndGet();
+        return new Calc();
+    }
+
+    @Test
+    public void registerLazy_shouldNotCreateInstance() {
+        engine.register(Calc.class, this::newCalc, "/add", "/neg");
+        Assert.assertEquals(0, created.get());
+    }
+
+    @Test
+    public void parseLazy_shouldCreateInstanceOnce() throws Exception {
+        engine.register(Calc.class, this::newCalc, "/add", "/neg");
+        Assert.assertEquals(7, engine.parse("/add 3 4"));
+        Assert.assertEquals(-2, engine.parse("/neg 2"));
+        Assert.assertEquals(1, created.get());
+    }
+
+    @Test
+    public void parseLazyWithoutDeclaredNames_shouldWork() throws Exception {
+        engine.register(Calc.class, this::newCalc);
+        Assert.assertEquals(0, created.get());
+        Assert.assertEquals(-5, engine.parse("/neg 5"));
+    }
+
+    @Test
+    public void parseLazyCommandNotDeclared_shouldStillBeRegisteredAfterResolve() throws Exception {
+        engine.register(Calc.class, this::newCalc, "/add");
+        try {
+            engine.parse("/neg 1");
+            Assert.fail();
+        } catch (CommandNotFoundException e) {
+            Assert.assertEquals(0, created.get());
+        }
+        engine.parse("/add 1 1");
+        Assert.assertEquals(-1, engine.parse("/neg 1"));
+    }
+
+    @Test
+    public void usageLazy_shouldWork() {
+        engine.register(Calc.class, this::newCalc, "/add", "/neg");
+        Assert.assertEquals("Usage: /add <int> <int>\n", engine.usage("/add"));
+    }
+
+    @Test
+    public void listCommandsLazy_shouldNotCreateInstance() {
+        engine.register(Calc.class, this::newCalc);
+        EasyEngine eager = new EasyEngine();
+        eager.register(new Calc());
+        Assert.assertEquals(eager.listCommands(), engine.listCommands());
+        Assert.assertEquals(0, created.get());
+    }
+
+    @Test
+    public void listCommandsLazyMalformed_shouldNotThrow() {
+        engine.register(Broken.class, Broken::new, "/broken");
+        Assert.assertTrue(engine.listCommands().contains("/broken"));
+    }
+
+    @Test
+    public void unregisterLazyBeforeResolve_shouldRemoveCommands() throws Exception {
+        engine.register(Calc.class, this::newCalc, "/add", "/neg");
+        engine.unregister(Calc.class);
+        try {
+            engine.parse("/add 1 1");
+            Assert.fail();
+        } catch (CommandNotFoundException e) {
+            Assert.assertEquals(0, created.get());
+        }
+    }
+
+    @Test(expected = CommandNotFoundException.class)
+    public void unregisterLazyAfterResolve_shouldRemoveCommands() throws Exception {
+        engine.register(Calc.class, this::newCalc);
+        engine.parse("/add 1 1");
+        engine.unregister(Calc.class);
+        engine.parse("/neg 1");
+    }
+
+    @Test
+    public void registerLazyMalformed_shouldNotThrow() {
+        engine.register(Broken.class, Broken::new, "/broken");
+    }
+
+    @Test(expected = MalformedMethodException.class)
+    public void validateLazyMalformed_shouldThrowMalformedMethodException() {
+        engine.register(Broken.class, Broken::new, "/broken");
+        engine.validate();
+    }
+
+    @Test(expected = MalformedMethodException.class)
+    public void parseLazyMalformed_shouldThrowMalformedMethodException() throws Exception {
+        engine.register(Broken.class, Broken::new, "/broken");
+        engine.parse("/broken 1");
+    }
+
+    @Test(expected = MalformedMethodException.class)
+    public void validateLazyUnknownDeclaredCommand_shouldThrowMalformedMethodException() {
+        engine.register(Calc.class, this::newCalc, "/add", "/mul");
+        engine.validate();
+    }
+
+    @Test(expected = MalformedMethodException.class)
+    public void validateLazySupplierReturningNull_shouldThrowMalformedMethodException() {
+        engine.register(Calc.class, () -> null, "/add");
+        engine.validate();
+    }
+
+    @Test(expected = KeyAlreadyExistsException.class)
+    public void registerLazyDuplicateCommand_shouldThrowKeyAlreadyExistsException() {
+        engine.register(new Object(){
+            @Command("/add")
+            void add() {
+
+            }
+        });
+        engine.register(Calc.class, this::newCalc, "/add");
+    }
+
+    @Test
+    public void validate_shouldResolveAll() throws Exception {
+        engine.register(Calc.class, this::newCalc, "/add", "/neg");
+        engine.validate();
+        Assert.assertEquals(1, created.get());
+        Assert.assertEquals(2, engine.parse("/add 1 1"));
+        Assert.assertEquals(1, created.get());
+    }
+
+    @Test
+    public void parseLazyConcurrentEngine_shouldWork() throws Exception {
+        EasyEngine concurrent = new ConcurrentEasyEngine();
+        concurrent.register(Calc.class, this::newCalc);
+        Assert.assertEquals(3, concurrent.parse("/add 1 2"));
+        Assert.assertEquals(1, created.get());
+    }
+}
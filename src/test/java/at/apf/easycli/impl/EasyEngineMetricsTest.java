@@ -0,0 +1,103 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.exception.CommandNotFoundException;
+import at.apf.easycli.exception.MalformedCommandException;
+import at.apf.easycli.metrics.CommandStats;
+import at.apf.easycli.metrics.EngineMetrics;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+public class EasyEngineMetricsTest {
+
+    private EasyEngine engine = new EasyEngine();
+    private EngineMetrics metrics = new EngineMetrics();
+
+    @Before
+    public void setUp() {
+        engine.setMetrics(metrics);
+        engine.register(new Object(){
+            @Command("/add")
+            int add(int a, int b) {
+                return a + b;
+            }
+
+            @Command("/fail")
+            void fail() {
+                throw new IllegalStateException("fail");
+            }
+        });
+    }
+
+    private void parseIgnoringErrors(String cmd) {
+        try {
+            engine.parse(cmd);
+        } catch (Exception e) {
+            // counted by the metrics
+        }
+    }
+
+    @Test
+    public void parse_shouldRecordCommands() throws Exception {
+        engine.parse("/add 1 2");
+        engine.parse("/add 3 4");
+        parseIgnoringErrors("/fail");
+
+        List<CommandStats> stats = metrics.getCommands();
+        Assert.assertEquals(2, stats.size());
+        Assert.assertEquals("/add", stats.get(0).getCommand());
+        Assert.assertEquals(2, stats.get(0).getInvocations());
+        Assert.assertEquals(0, stats.get(0).getFailures());
+        Assert.assertTrue(stats.get(0).getMaxNanos() > 0);
+        Assert.assertEquals(1, stats.get(1).getFailures());
+        Assert.assertEquals(3, metrics.getInvocations());
+        Assert.assertEquals(1, metrics.errorCount(IllegalStateException.class));
+    }
+
+    @Test
+    public void parseErrors_shouldBeCountedByType() {
+        parseIgnoringErrors("/unknown");
+        parseIgnoringErrors("/add 1");
+        parseIgnoringErrors("/add 1 x");
+        Assert.assertEquals(1, metrics.errorCount(CommandNotFoundException.class));
+        Assert.assertEquals(1, metrics.errorCount(MalformedCommandException.class));
+        Assert.assertEquals(1, metrics.errorCount(NumberFormatException.class));
+        Assert.assertEquals(0, metrics.getInvocations());
+    }
+
+    @Test
+    public void parseErrorsWithSpecializedStrategy_shouldBeCountedByType() {
+        engine = new EasyEngine(InvocationStrategy.SPECIALIZED);
+        setUp();
+        parseIgnoringErrors("/add 1 x");
+        Assert.assertEquals(1, metrics.errorCount(NumberFormatException.class));
+        Assert.assertEquals(0, metrics.getInvocations());
+    }
+
+    @Test
+    public void disabledMetrics_shouldNotRecord() throws Exception {
+        engine.setMetrics(null);
+        engine.parse("/add 1 2");
+        Assert.assertEquals(0, metrics.getInvocations());
+    }
+
+    @Test
+    public void registerMBean_shouldExposeMetrics() throws Exception {
+        engine.parse("/add 1 2");
+        ObjectName name = metrics.registerMBean("test");
+        try {
+            Assert.assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Invocations"));
+            CompositeData[] commands = (CompositeData[]) ManagementFactory.getPlatformMBeanServer()
+                    .getAttribute(name, "Commands");
+            Assert.assertEquals("/add", commands[0].get("command"));
+        } finally {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.annotation.Meta;
+import at.apf.easycli.exception.CommandNotFoundException;
+import at.apf.easycli.exception.MalformedCommandException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EasyEngineParseCacheTest {
+
+    static final class Point {
+        final int x;
+        final int y;
+
+        Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    private final AtomicInteger conversions = new AtomicInteger();
+    private final EasyEngine engine = new EasyEngine();
+
+    private final Object commands = new Object() {
+        @Command("/move")
+        String move(@Meta String user, Point to) {
+            return user + " " + to.x + "," + to.y;
+        }
+
+        @Command("/sum")
+        int sum(int[] values) {
+            int sum = 0;
+            for (int i = 0; i < values.length; i++) {
+                sum += values[i];
+                values[i] = 0;
+            }
+            return sum;
+        }
+    };
+
+    private void setup(int cacheSize) {
+        engine.registerConverter(Point.class, str -> {
+            conversions.incrementAndGet();
+            String[] parts = str.split(",");
+            return new Point(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+        });
+        engine.register(commands);
+        engine.setParseCacheSize(cacheSize);
+    }
+
+    @Test
+    public void parseCacheDisabled_shouldConvertEveryTime() throws Exception {
+        setup(0);
+        engine.parse("/move 1,2", "alice");
+        engine.parse("/move 1,2", "alice");
+        Assert.assertEquals(2, conversions.get());
+        Assert.assertEquals(0, engine.getParseCacheSize());
+    }
+
+    @Test
+    public void parseCached_shouldConvertOnce() throws Exception {
+        setup(16);
+        Assert.assertEquals("alice 1,2", engine.parse("/move 1,2", "alice"));
+        Assert.assertEquals("alice 1,2", engine.parse("/move 1,2", "alice"));
+        Assert.assertEquals(1, conversions.get());
+        Assert.assertEquals(1, engine.getParseCacheSize());
+    }
+
+    @Test
+    public void parseCached_shouldUseNewMetadata() throws Exception {
+        setup(16);
+        Assert.assertEquals("alice 1,2", engine.parse("/move 1,2", "alice"));
+        Assert.assertEquals("bob 1,2", engine.parse("/move 1,2", "bob"));
+    }
+
+    @Test(expected = MalformedCommandException.class)
+    public void parseCachedWithoutMetadata_shouldThrowMalformedCommandException() throws Exception {
+        setup(16);
+        engine.parse("/move 1,2", "alice");
+        engine.parse("/move 1,2");
+    }
+
+    @Test
+    public void parseCachedArray_shouldNotShareArray() throws Exception {
+        setup(16);
+        Assert.assertEquals(6, engine.parse("/sum 1 2 3"));
+        Assert.assertEquals(6, engine.parse("/sum 1 2 3"));
+        Assert.assertEquals(6, engine.parse("/sum 1 2 3"));
+    }
+
+    @Test
+    public void parseCacheFull_shouldStayBounded() throws Exception {
+        setup(2);
+        engine.parse("/move 1,1", "alice");
+        engine.parse("/move 2,2", "alice");
+        engine.parse("/move 3,3", "alice");
+        Assert.assertEquals(2, engine.getParseCacheSize());
+    }
+
+    @Test
+    public void parseCacheFull_shouldEvictLeastRecentlyUsed() throws Exception {
+        setup(2);
+        engine.parse("/move 1,1", "alice");
+        engine.parse("/move 2,2", "alice");
+        engine.parse("/move 1,1", "alice");
+        engine.parse("/move 3,3", "alice");
+        Assert.assertEquals(3, conversions.get());
+        engine.parse("/move 1,1", "alice");
+        Assert.assertEquals(3, conversions.get());
+        engine.parse("/move 2,2", "alice");
+        Assert.assertEquals(4, conversions.get());
+    }
+
+    @Test
+    public void parseCacheWithSegments_shouldStayBounded() throws Exception {
+        setup(100);
+        for (int i = 0; i < 1000; i++) {
+            engine.parse("/move " + i + "," + i, "alice");
+        }
+        Assert.assertEquals(100, engine.getParseCacheSize(), 20);
+        Assert.assertTrue(engine.getParseCacheSize() <= 100);
+    }
+
+    @Test
+    public void unregister_shouldDropCachedCommands() throws Exception {
+        setup(16);
+        engine.parse("/move 1,2", "alice");
+        engine.unregister(commands);
+        try {
+            engine.parse("/move 1,2", "alice");
+            Assert.fail();
+        } catch (CommandNotFoundException e) {
+            Assert.assertEquals(0, engine.getParseCacheSize());
+        }
+    }
+
+    @Test
+    public void setAbbreviations_shouldDropCachedCommands() throws Exception {
+        setup(16);
+        engine.parse("/move 1,2", "alice");
+        engine.setAbbreviations(true);
+        Assert.assertEquals(0, engine.getParseCacheSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setParseCacheSizeNegative_shouldThrowIllegalArgumentException() {
+        engine.setParseCacheSize(-1);
+    }
+}
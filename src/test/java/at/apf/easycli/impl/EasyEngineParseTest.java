@@ -9,12 +9,23 @@ import at.apf.easycli.annotation.Optional;
 import at.apf.easycli.exception.CommandNotFoundException;
 import at.apf.easycli.exception.MalformedCommandException;
 import at.apf.easycli.impl.util.MutableContainer;
+import at.apf.easycli.util.enumeration.Direction;
 import at.apf.easycli.util.enumeration.Material;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
 
 public class EasyEngineParseTest {
 
@@ -46,6 +57,19 @@ public class EasyEngineParseTest {
         Assert.assertEquals(5, container.getValue().intValue());
     }
 
+    @Test
+    public void parseQuotedCommand_shouldWork() throws Exception {
+        MutableContainer<Integer> container = new MutableContainer<>(0);
+        engine.register(new Object(){
+            @Command("/bla")
+            void bla(int a) {
+                container.setValue(a);
+            }
+        });
+        engine.parse("\"/bla\" 5");
+        Assert.assertEquals(5, container.getValue().intValue());
+    }
+
     @Test
     public void parseWithOptional_shouldGiveZero() throws Exception {
         MutableContainer<Integer> container = new MutableContainer<>(1);
@@ -72,6 +96,18 @@ public class EasyEngineParseTest {
         Assert.assertEquals(5, container.getValue().intValue());
     }
 
+    @Test
+    public void parseWithOptionalLongAndChar_shouldGiveZero() throws Exception {
+        engine.register(new Object(){
+            @Command("/bla")
+            void bla(@Optional long a, @Optional char b) {
+                Assert.assertEquals(0L, a);
+                Assert.assertEquals('\0', b);
+            }
+        });
+        engine.parse("/bla");
+    }
+
     @Test
     public void parseAllTypes_shouldWork() throws Exception {
         engine.register(new Object(){
@@ -191,6 +227,22 @@ public class EasyEngineParseTest {
         engine.parse("/bla -e --cdef");
     }
 
+    @Test
+    public void parseWithFlagsInSeveralParts_shouldWork() throws Exception {
+        engine.register(new Object(){
+            @Command("/bla")
+            void bla(@Flag('c') boolean c, @Flag(value = 'd', alternative = "dry") boolean d, @Flag('e') boolean e,
+                     @Flag('f') boolean f, String[] rest) {
+                Assert.assertTrue(c);
+                Assert.assertTrue(d);
+                Assert.assertFalse(e);
+                Assert.assertTrue(f);
+                Assert.assertArrayEquals(new String[] { "a", "-", "-5" }, rest);
+            }
+        });
+        engine.parse("/bla -cx a --dry - -5 -f");
+    }
+
     @Test
     public void parseWithFlagAndArg_shouldWork() throws Exception {
         engine.register(new Object(){
@@ -251,6 +303,50 @@ public class EasyEngineParseTest {
         Assert.assertFalse(containerA.getValue());
     }
 
+    @Test
+    public void parseSubcommands_shouldWork() throws Exception {
+        engine.register(new Object(){
+            @Command("/repo")
+            String repo(String name) {
+                return "repo " + name;
+            }
+            @Command("/repo add")
+            String add(String name) {
+                return "add " + name;
+            }
+        });
+        Assert.assertEquals("add x", engine.parse("/repo  add x"));
+        Assert.assertEquals("repo list", engine.parse("/repo list"));
+    }
+
+    @Test
+    public void parseAbbreviatedCommand_shouldWork() throws Exception {
+        EasyEngine engine = new EasyEngine();
+        engine.setAbbreviations(true);
+        engine.register(new Object(){
+            @Command("/negate")
+            int negate(int a) {
+                return -a;
+            }
+        });
+        Assert.assertEquals(-5, engine.parse("/neg 5"));
+    }
+
+    @Test
+    public void parseMisspelledCommand_shouldSuggestCandidates() throws Exception {
+        engine.register(new Object(){
+            @Command("/register")
+            void register() {
+            }
+        });
+        try {
+            engine.parse("/regster");
+            Assert.fail();
+        } catch (CommandNotFoundException e) {
+            Assert.assertEquals("Command '/regster' not registered. Did you mean /register?", e.getMessage());
+        }
+    }
+
     @Test
     public void parseWithReturn_shouldReturnFive() throws Exception {
         engine.register(new Object(){
@@ -387,4 +483,167 @@ public class EasyEngineParseTest {
         engine.parse("/noparameter parameter");
     }
 
+
+    @Test
+    public void parseBuiltInConvertedTypes_shouldWork() throws Exception {
+        engine.register(new Object(){
+            @Command("/convert")
+            String convert(UUID id, BigDecimal amount, Instant at, @DefaultValue("PT1M") Duration timeout) {
+                return id + " " + amount + " " + at.toEpochMilli() + " " + timeout.getSeconds();
+            }
+        });
+        Assert.assertEquals("123e4567-e89b-12d3-a456-426614174000 12.50 1000 60",
+                engine.parse("/convert 123e4567-e89b-12d3-a456-426614174000 12.50 1970-01-01T00:00:01Z"));
+    }
+
+    @Test
+    public void parseConvertedArray_shouldWork() throws Exception {
+        engine.register(new Object(){
+            @Command("/sum")
+            BigInteger sum(BigInteger... values) {
+                return Arrays.stream(values).reduce(BigInteger.ZERO, BigInteger::add);
+            }
+        });
+        Assert.assertEquals(new BigInteger("100000000000000000001"),
+                engine.parse("/sum 99999999999999999999 2"));
+    }
+
+    @Test
+    public void parseRegisteredConverter_shouldWork() throws Exception {
+        engine.registerConverter(Locale.class, Locale::forLanguageTag);
+        engine.register(new Object(){
+            @Command("/lang")
+            String lang(Locale locale, Locale... more) {
+                return locale.getCountry() + more.length;
+            }
+        });
+        Assert.assertEquals("AT1", engine.parse("/lang de-AT en"));
+    }
+
+    @Test
+    public void parseRegisteredPrimitiveConverter_shouldApplyToArrays() throws Exception {
+        for (InvocationStrategy strategy: InvocationStrategy.values()) {
+            EasyEngine engine = new EasyEngine(strategy);
+            engine.registerConverter(int.class, str -> Integer.parseInt(str, 16));
+            engine.register(new Object(){
+                @Command("/hex")
+                int hex(int value) {
+                    return value;
+                }
+
+                @Command("/sum")
+                int sum(int... values) {
+                    return Arrays.stream(values).sum();
+                }
+            });
+            Assert.assertEquals(255, engine.parse("/hex ff"));
+            Assert.assertEquals(26, engine.parse("/sum a 10"));
+        }
+    }
+
+    @Test
+    public void parseEnumAliasAndPrefix_shouldWork() throws Exception {
+        EasyEngine engine = new EasyEngine();
+        engine.setEnumPrefixes(true);
+        engine.register(new Object(){
+            @Command("/move")
+            String move(Direction direction, Material material) {
+                return direction + " " + material;
+            }
+        });
+        Assert.assertEquals("WEST COOPER", engine.parse("/move left coo"));
+    }
+
+    @Test
+    public void parseLargeIntArray_shouldWork() throws Exception {
+        engine.register(new Object(){
+            @Command("/sum")
+            long sum(int... values) {
+                long sum = 0;
+                for (int v: values) {
+                    sum += v;
+                }
+                return sum;
+            }
+        });
+        StringBuilder cmd = new StringBuilder("/sum");
+        for (int i = 1; i <= 10000; i++) {
+            cmd.append(' ').append(i);
+        }
+        Assert.assertEquals(50005000L, engine.parse(cmd.toString()));
+    }
+
+    @Test
+    public void parseBoxedTypes_shouldWork() throws Exception {
+        engine.register(new Object(){
+            @Command("/boxed")
+            String boxed(Integer a, Long b, Boolean c, Character d, Double... e) {
+                return a + " " + b + " " + c + " " + d + " " + e.length;
+            }
+        });
+        Assert.assertEquals("1 2 true x 2", engine.parse("/boxed 1 2 true x 1.5 2.5"));
+    }
+
+    @Test
+    public void parseList_shouldWork() throws Exception {
+        engine.register(new Object(){
+            @Command("/sum")
+            int sum(String name, List<Integer> values) {
+                int sum = 0;
+                for (int v: values) {
+                    sum += v;
+                }
+                return sum;
+            }
+        });
+        Assert.assertEquals(10, engine.parse("/sum bla 1 2 3 4"));
+    }
+
+    @Test
+    public void parseListLazy_shouldOnlyConvertReadElements() throws Exception {
+        engine.register(new Object(){
+            @Command("/first")
+            int first(Collection<Integer> values) {
+                return values.iterator().next();
+            }
+        });
+        Assert.assertEquals(7, engine.parse("/first 7 notanumber"));
+    }
+
+    @Test
+    public void parseSet_shouldRemoveDuplicates() throws Exception {
+        engine.register(new Object(){
+            @Command("/tags")
+            Set<String> tags(Set<String> tags) {
+                return tags;
+            }
+        });
+        Set<?> tags = (Set<?>) engine.parse("/tags b a b \"c d\"");
+        Assert.assertEquals(Arrays.asList("b", "a", "c d"), new ArrayList<>(tags));
+    }
+
+    @Test
+    public void parseOptionalCollection_shouldBeEmpty() throws Exception {
+        engine.register(new Object(){
+            @Command("/count")
+            int count(@Optional List<Material> materials) {
+                return materials.size();
+            }
+        });
+        Assert.assertEquals(0, engine.parse("/count"));
+        Assert.assertEquals(2, engine.parse("/count wood stone"));
+    }
+
+    @Test
+    public void parseJavaOptional_shouldWork() throws Exception {
+        engine.register(new Object(){
+            @Command("/greet")
+            String greet(java.util.Optional<String> name, @DefaultValue("3") java.util.Optional<Integer> times) {
+                return name.orElse("nobody") + times.get();
+            }
+        });
+        Assert.assertEquals("nobody3", engine.parse("/greet"));
+        Assert.assertEquals("bob3", engine.parse("/greet bob"));
+        Assert.assertEquals("bob5", engine.parse("/greet bob 5"));
+    }
 }
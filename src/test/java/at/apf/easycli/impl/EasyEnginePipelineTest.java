@@ -0,0 +1,168 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.CommandResult;
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.annotation.Flag;
+import at.apf.easycli.annotation.Optional;
+import at.apf.easycli.annotation.Piped;
+import at.apf.easycli.exception.MalformedCommandException;
+import at.apf.easycli.exception.MalformedMethodException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class EasyEnginePipelineTest {
+
+    private final EasyEngine engine = new EasyEngine();
+    private final AtomicInteger produced = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+
+    @Before
+    public void setup() {
+        engine.setPipelines(true);
+        engine.register(new Object() {
+            @Command("/range")
+            Stream<Integer> range(int from, int to) {
+                return IntStream.range(from, to).peek(i -> produced.incrementAndGet()).boxed();
+            }
+
+            @Command("/lines")
+            Stream<String> lines() {
+                return Stream.of("a", "b").onClose(closed::incrementAndGet);
+            }
+
+            @Command("/broken")
+            Stream<String> broken() {
+                return Stream.of("a", "b").<String>map(s -> {
+                    throw new IllegalStateException("broken " + s);
+                }).onClose(closed::incrementAndGet);
+            }
+
+            @Command("/users")
+            List<String> users() {
+                return Arrays.asList("alice", "bob", "carol");
+            }
+
+            @Command("/filter")
+            Stream<String> filter(String prefix, @Flag('v') boolean invert, @Piped Stream<Object> input) {
+                return input.map(String::valueOf).filter(s -> s.startsWith(prefix) != invert);
+            }
+
+            @Command("/first")
+            Object first(@Piped Iterator<Object> input) {
+                return input.hasNext() ? input.next() : null;
+            }
+
+            @Command("/count")
+            long count(@Optional @Piped Iterable<Object> input) {
+                long count = 0;
+                if (input != null) {
+                    for (Object o: input) {
+                        count++;
+                    }
+                }
+                return count;
+            }
+
+            @Command("/all")
+            int all(@Piped List<Object> input) {
+                return input.size();
+            }
+
+            @Command("/upper")
+            String upper(@Piped String input) {
+                return input.toUpperCase();
+            }
+
+            @Command("/echo")
+            String echo(String[] parts) {
+                return String.join(" ", parts);
+            }
+        });
+    }
+
+    @Test
+    public void parsePipeline_shouldPassResults() throws Exception {
+        Assert.assertEquals(2L, engine.parse("/users | /filter b -v | /count"));
+        Assert.assertEquals("ALICE", engine.parse("/users | /first | /upper"));
+        Assert.assertEquals(3, engine.parse("/users | /all"));
+    }
+
+    @Test
+    public void parsePipeline_shouldStreamElements() throws Exception {
+        Assert.assertEquals("2", engine.parse("/range 0 1000000 | /filter 2 | /first"));
+        Assert.assertEquals(3, produced.get());
+    }
+
+    @Test
+    public void parsePipelineIntoList_shouldCloseCollectedStream() throws Exception {
+        Assert.assertEquals(2, engine.parse("/lines | /all"));
+        Assert.assertEquals(1, closed.get());
+        try {
+            engine.parse("/broken | /all");
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals(2, closed.get());
+        }
+    }
+
+    @Test
+    public void parseWithoutPipeline_shouldUseOptionalPiped() throws Exception {
+        Assert.assertEquals(0L, engine.parse("/count"));
+    }
+
+    @Test(expected = MalformedCommandException.class)
+    public void parseWithoutPipeline_shouldThrowIfPipedIsMissing() throws Exception {
+        engine.parse("/upper");
+    }
+
+    @Test(expected = MalformedCommandException.class)
+    public void parsePipelineIntoCommandWithoutPiped_shouldThrowMalformedCommandException() throws Exception {
+        engine.parse("/users | /echo a");
+    }
+
+    @Test(expected = MalformedCommandException.class)
+    public void parsePipelineWithWrongType_shouldThrowMalformedCommandException() throws Exception {
+        engine.parse("/range 0 2 | /upper");
+    }
+
+    @Test
+    public void parseQuotedBar_shouldNotSplit() throws Exception {
+        Assert.assertEquals("a | b", engine.parse("/echo a \"|\" b"));
+    }
+
+    @Test
+    public void parsePipelinesDisabled_shouldPassBarAsArgument() throws Exception {
+        engine.setPipelines(false);
+        Assert.assertEquals("a | b", engine.parse("/echo a | b"));
+    }
+
+    @Test
+    public void parseAllPipeline_shouldWork() {
+        List<CommandResult> results = engine.parseAll(Arrays.asList("/users | /count", "/upper"));
+        Assert.assertEquals(3L, results.get(0).getValue());
+        Assert.assertTrue(results.get(1).getError() instanceof MalformedCommandException);
+    }
+
+    @Test
+    public void usagePiped_shouldNotBeListed() {
+        Assert.assertEquals("Usage: /first\n", engine.usage("/first"));
+    }
+
+    @Test(expected = MalformedMethodException.class)
+    public void registerTwoPiped_shouldThrowMalformedMethodException() {
+        engine.register(new Object() {
+            @Command("/bla")
+            void bla(@Piped Object a, @Piped Object b) {
+
+            }
+        });
+    }
+}
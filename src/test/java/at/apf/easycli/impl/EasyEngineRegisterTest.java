@@ -7,10 +7,13 @@ import at.apf.easycli.annotation.Flag;
 import at.apf.easycli.annotation.Meta;
 import at.apf.easycli.annotation.Optional;
 import at.apf.easycli.exception.MalformedMethodException;
+import at.apf.easycli.util.enumeration.Ambiguous;
 import at.apf.easycli.util.enumeration.Material;
 import org.junit.Test;
 
 import javax.management.openmbean.KeyAlreadyExistsException;
+import java.util.List;
+import java.util.Locale;
 
 public class EasyEngineRegisterTest {
 
@@ -213,4 +216,64 @@ public class EasyEngineRegisterTest {
             }
         });
     }
+
+    @Test(expected = MalformedMethodException.class)
+    public void registerUnparsableDefaultValue_shouldThrowMalformedMethodException() {
+        engine.register(new Object(){
+            @Command("/bla")
+            void bla(@DefaultValue("abc") int a) {
+
+            }
+        });
+    }
+
+    @Test(expected = MalformedMethodException.class)
+    public void registerTypeWithoutConverter_shouldThrowMalformedMethodException() {
+        engine.register(new Object(){
+            @Command("/bla")
+            void bla(Locale locale) {
+
+            }
+        });
+    }
+
+    @Test(expected = MalformedMethodException.class)
+    public void registerEnumWithAmbiguousAlias_shouldThrowMalformedMethodException() {
+        engine.register(new Object(){
+            @Command("/bla")
+            void bla(Ambiguous a) {
+
+            }
+        });
+    }
+
+    @Test(expected = MalformedMethodException.class)
+    public void registerListWithoutTypeArgument_shouldThrowMalformedMethodException() {
+        engine.register(new Object(){
+            @Command("/bla")
+            void bla(List list) {
+
+            }
+        });
+    }
+
+    @Test(expected = MalformedMethodException.class)
+    public void registerListOfUnsupportedType_shouldThrowMalformedMethodException() {
+        engine.register(new Object(){
+            @Command("/bla")
+            void bla(List<Object> list) {
+
+            }
+        });
+    }
+
+    @Test(expected = MalformedMethodException.class)
+    public void registerListBeforeArgument_shouldThrowMalformedMethodException() {
+        engine.register(new Object(){
+            @Command("/bla")
+            void bla(List<Integer> list, int a) {
+
+            }
+        });
+    }
 }
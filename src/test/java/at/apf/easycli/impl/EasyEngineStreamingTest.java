@@ -0,0 +1,131 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.annotation.Meta;
+import at.apf.easycli.annotation.Piped;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class EasyEngineStreamingTest {
+
+    private final EasyEngine engine = new EasyEngine();
+    private final AtomicInteger produced = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+    private final List<Object> received = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        engine.setPipelines(true);
+        engine.register(new Object() {
+            @Command("/range")
+            Stream<Integer> range(int from, int to) {
+                return IntStream.range(from, to).peek(i -> produced.incrementAndGet()).boxed()
+                        .onClose(closed::incrementAndGet);
+            }
+
+            @Command("/letters")
+            Iterator<String> letters() {
+                return Arrays.asList("a", "b", "c").iterator();
+            }
+
+            @Command("/users")
+            List<String> users(@Meta String prefix) {
+                return Arrays.asList(prefix + "alice", prefix + "bob");
+            }
+
+            @Command("/numbers")
+            int[] numbers() {
+                return new int[]{1, 2, 3};
+            }
+
+            @Command("/hello")
+            String hello() {
+                return "hello";
+            }
+
+            @Command("/nothing")
+            void nothing() {
+
+            }
+
+            @Command("/fail")
+            int fail(int a) {
+                return a;
+            }
+        });
+    }
+
+    @Test
+    public void parseStreamingStream_shouldPassElementsLazily() throws Exception {
+        long count = engine.parseStreaming("/range 0 1000000", e -> {
+            received.add(e);
+            return received.size() < 3;
+        });
+        Assert.assertEquals(3, count);
+        Assert.assertEquals(Arrays.asList(0, 1, 2), received);
+        Assert.assertEquals(3, produced.get());
+        Assert.assertEquals(1, closed.get());
+    }
+
+    @Test
+    public void parseStreamingStream_shouldCloseWhenSinkThrows() throws Exception {
+        try {
+            engine.parseStreaming("/range 0 10", e -> {
+                throw new IllegalStateException("full");
+            });
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("full", e.getMessage());
+        }
+        Assert.assertEquals(1, produced.get());
+        Assert.assertEquals(1, closed.get());
+    }
+
+    @Test
+    public void parseStreamingIteratorIterableAndArray_shouldPassEveryElement() throws Exception {
+        Assert.assertEquals(3, engine.parseStreaming("/letters", received::add));
+        Assert.assertEquals(2, engine.parseStreaming("/users", received::add, "@"));
+        Assert.assertEquals(3, engine.parseStreaming("/numbers", received::add));
+        Assert.assertEquals(Arrays.asList("a", "b", "c", "@alice", "@bob", 1, 2, 3), received);
+    }
+
+    @Test
+    public void parseStreamingSingleValue_shouldPassOneElement() throws Exception {
+        Assert.assertEquals(1, engine.parseStreaming("/hello", received::add));
+        Assert.assertEquals(0, engine.parseStreaming("/nothing", received::add));
+        Assert.assertEquals(Arrays.asList("hello"), received);
+    }
+
+    @Test
+    public void parseStreamingPipeline_shouldPassLastResult() throws Exception {
+        engine.register(new Object() {
+            @Command("/double")
+            Stream<Integer> twice(@Piped Stream<Integer> input) {
+                return input.map(i -> i * 2);
+            }
+        });
+        Assert.assertEquals(3, engine.parseStreaming("/range 0 3 | /double", received::add));
+        Assert.assertEquals(Arrays.asList(0, 2, 4), received);
+        Assert.assertEquals(1, closed.get());
+    }
+
+    @Test
+    public void parsePipelineFailing_shouldClosePreviousResult() throws Exception {
+        try {
+            engine.parseStreaming("/range 0 3 | /fail x", received::add);
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertEquals(1, closed.get());
+        }
+        Assert.assertEquals(0, produced.get());
+    }
+}
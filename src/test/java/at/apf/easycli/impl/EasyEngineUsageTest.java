@@ -9,6 +9,8 @@ import at.apf.easycli.annotation.Usage;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.List;
+
 public class EasyEngineUsageTest {
 
     private CliEngine engine = new EasyEngine();
@@ -153,4 +155,47 @@ public class EasyEngineUsageTest {
                 "/negate  negates a number", usage.trim());
     }
 
+    @Test
+    public void usageWithStringArray_shouldUseSimpleName() {
+        engine.register(new Object() {
+            @Command("/echo")
+            void echo(String[] words) { }
+        });
+        Assert.assertEquals("Usage: /echo <String>...", engine.usage("/echo").trim());
+    }
+
+    @Test
+    public void usageTwice_shouldReturnCachedText() {
+        engine.register(new Object() {
+            @Command("/add")
+            void add(int a, int b) { }
+        });
+        Assert.assertSame(engine.usage("/add 5 1"), engine.usage("/add"));
+    }
+
+    @Test
+    public void listCommandsAfterRegister_shouldContainNewCommand() {
+        engine.register(new Object() {
+            @Command("/add")
+            public void add(int a, int b) {}
+        });
+        String first = engine.listCommands();
+        Assert.assertSame(first, engine.listCommands());
+        engine.register(new Object() {
+            @Command("/negate")
+            public void negate(int a) {}
+        });
+        Assert.assertEquals("/add     \n/negate", engine.listCommands().trim());
+    }
+
+
+    @Test
+    public void usageWithCollectionAndOptional_shouldWork() {
+        engine.register(new Object(){
+            @Command("/add")
+            void add(java.util.Optional<Integer> a, @Optional List<Double> b) {}
+        });
+        String usage = engine.usage("/add 5 1");
+        Assert.assertEquals("Usage: /add [<Integer> [<Double>...]]", usage.trim());
+    }
 }
@@ -0,0 +1,58 @@
+package at.apf.easycli.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrimitiveArgumentsTest {
+
+    private CliSplitter splitter = new CliSplitter();
+
+    private Object parse(Class<?> componentType, String cmd) {
+        Tokens tokens = splitter.tokenize(cmd);
+        int[] arguments = new int[tokens.size()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = i;
+        }
+        return PrimitiveArguments.parseArray(componentType, tokens, arguments, 0, arguments.length);
+    }
+
+    @Test
+    public void parseInts_shouldWork() {
+        Assert.assertArrayEquals(new int[]{0, 7, -12, 42, Integer.MAX_VALUE, Integer.MIN_VALUE},
+                (int[]) parse(int.class, "0 7 -12 +42 2147483647 -2147483648"));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parseIntOverflow_shouldThrowNumberFormatException() {
+        parse(int.class, "1 2147483648");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parseIntSignOnly_shouldThrowNumberFormatException() {
+        parse(int.class, "-");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parseIntWithLetters_shouldThrowNumberFormatException() {
+        parse(int.class, "12a");
+    }
+
+    @Test
+    public void parseLongs_shouldWork() {
+        Assert.assertArrayEquals(new long[]{-1L, 123456789012345678L, Long.MAX_VALUE, Long.MIN_VALUE},
+                (long[]) parse(long.class, "-1 123456789012345678 9223372036854775807 -9223372036854775808"));
+    }
+
+    @Test
+    public void parseCharsAndBooleans_shouldWork() {
+        Assert.assertArrayEquals(new char[]{'a', 'x', '"'}, (char[]) parse(char.class, "a xyz \\\"x"));
+        boolean[] bools = (boolean[]) parse(boolean.class, "true TRUE tRuE false yes truee");
+        Assert.assertArrayEquals(new boolean[]{true, true, true, false, false, false}, bools);
+    }
+
+    @Test
+    public void parseFloatingPoint_shouldWork() {
+        Assert.assertArrayEquals(new double[]{1.5, -2e3}, (double[]) parse(double.class, "1.5 -2e3"), 0.0);
+        Assert.assertArrayEquals(new float[]{0.1f}, (float[]) parse(float.class, "0.1"), 0.0f);
+    }
+}
@@ -0,0 +1,85 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.CommandResult;
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.exception.CommandNotFoundException;
+import at.apf.easycli.exception.MalformedCommandException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReplDriverTest {
+
+    private EasyEngine engine = new EasyEngine();
+    private ReplDriver driver = new ReplDriver(engine);
+    private List<CommandResult> results = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        engine.register(new Object(){
+            @Command("/add")
+            int add(int a, int b) {
+                return a + b;
+            }
+
+            @Command("/echo")
+            String echo(String str) {
+                return str;
+            }
+        });
+    }
+
+    @Test
+    public void runLines_shouldWork() throws Exception {
+        int count = driver.run(new StringReader("/add 1 2\r\n\n   \n/add 3 4"), results::add);
+        Assert.assertEquals(2, count);
+        Assert.assertEquals(3, results.get(0).getValue());
+        Assert.assertEquals(1, results.get(0).getLine());
+        Assert.assertEquals(7, results.get(1).getValue());
+        Assert.assertEquals(4, results.get(1).getLine());
+    }
+
+    @Test
+    public void runQuoteOverLines_shouldContinueCommand() throws Exception {
+        driver.run(new StringReader("/echo \"first\nsecond\"\n/echo \"a \\\" b\"\n"), results::add);
+        Assert.assertEquals(2, results.size());
+        Assert.assertEquals("first\nsecond", results.get(0).getValue());
+        Assert.assertEquals("a \" b", results.get(1).getValue());
+        Assert.assertEquals(3, results.get(1).getLine());
+    }
+
+    @Test
+    public void runUnclosedQuote_shouldFailLastCommand() throws Exception {
+        driver.run(new StringReader("/add 1 1\n/echo \"open"), results::add);
+        Assert.assertEquals(2, results.size());
+        Assert.assertTrue(results.get(0).isSuccess());
+        Assert.assertTrue(results.get(1).getError() instanceof MalformedCommandException);
+    }
+
+    @Test
+    public void runStopOnError_shouldStopAfterFailure() throws Exception {
+        driver.setStopOnError(true);
+        int count = driver.run(new StringReader("/add 1 1\n/unknown\n/add 2 2"), results::add);
+        Assert.assertEquals(2, count);
+        Assert.assertTrue(results.get(1).getError() instanceof CommandNotFoundException);
+    }
+
+    @Test
+    public void runLongInput_shouldWork() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            sb.append("/add ").append(i).append(" 1\n");
+        }
+        byte[] input = sb.toString().getBytes(StandardCharsets.UTF_8);
+        int count = driver.run(new ByteArrayInputStream(input), StandardCharsets.UTF_8, results::add);
+        Assert.assertEquals(5000, count);
+        Assert.assertEquals(5000, results.get(4999).getValue());
+        Assert.assertEquals(5000, results.get(4999).getLine());
+    }
+}
@@ -0,0 +1,119 @@
+package at.apf.easycli.impl;
+
+import at.apf.easycli.CommandResult;
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.annotation.Piped;
+import at.apf.easycli.exception.CommandNotFoundException;
+import at.apf.easycli.exception.MalformedCommandException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ScriptRunnerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private EasyEngine engine = new EasyEngine();
+    private List<CommandResult> results = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        engine.register(new Object(){
+            @Command("/add")
+            int add(int a, int b) {
+                return a + b;
+            }
+
+            @Command("/echo")
+            String echo(String str) {
+                return str;
+            }
+
+            @Command("/upper")
+            String upper(@Piped String input) {
+                return input.toUpperCase();
+            }
+        });
+    }
+
+    private Path script(String content) throws IOException {
+        Path path = folder.newFile().toPath();
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    @Test
+    public void runScript_shouldWork() throws Exception {
+        long count = new ScriptRunner(engine).run(script("/add 1 2\r\n\n/echo \"a b\"\n/echo gr\u00fc\u00df\n"), results::add);
+        Assert.assertEquals(3, count);
+        Assert.assertEquals(3, results.get(0).getValue());
+        Assert.assertEquals(0, results.get(0).getOffset());
+        Assert.assertNull(results.get(0).getCommand());
+        Assert.assertEquals("a b", results.get(1).getValue());
+        Assert.assertEquals(3, results.get(1).getLine());
+        Assert.assertEquals(11, results.get(1).getOffset());
+        Assert.assertEquals("gr\u00fc\u00df", results.get(2).getValue());
+    }
+
+    @Test
+    public void runScriptWithSmallWindow_shouldWork() throws Exception {
+        StringBuilder sb = new StringBuilder("\ufeff");
+        for (int i = 0; i < 100; i++) {
+            sb.append("/add ").append(i).append(" 1\n");
+        }
+        sb.append("/echo \"a\nb\"");
+        long count = new ScriptRunner(engine, 16).run(script(sb.toString()), results::add);
+        Assert.assertEquals(101, count);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i + 1, results.get(i).getValue());
+            Assert.assertEquals(i + 1, results.get(i).getLine());
+        }
+        Assert.assertEquals("a\nb", results.get(100).getValue());
+        Assert.assertEquals(101, results.get(100).getLine());
+        Assert.assertEquals(sb.toString().getBytes(StandardCharsets.UTF_8).length - 11, results.get(100).getOffset());
+    }
+
+    @Test
+    public void runScriptErrors_shouldContainLineNumbers() throws Exception {
+        new ScriptRunner(engine).run(script("/add 1 1\n/unknown\n/add 1\n/add 2 2"), results::add);
+        Assert.assertEquals(4, results.size());
+        Assert.assertTrue(results.get(1).getError() instanceof CommandNotFoundException);
+        Assert.assertTrue(results.get(1).getError().getMessage().startsWith("Line 2: "));
+        Assert.assertTrue(results.get(2).getError() instanceof MalformedCommandException);
+        Assert.assertTrue(results.get(2).getError().getMessage().startsWith("Line 3: "));
+        Assert.assertTrue(results.get(3).isSuccess());
+    }
+
+    @Test
+    public void runScriptStopOnError_shouldStop() throws Exception {
+        ScriptRunner runner = new ScriptRunner(engine);
+        runner.setStopOnError(true);
+        long count = runner.run(script("/add 1 1\n/unknown\n/add 2 2"), results::add);
+        Assert.assertEquals(2, count);
+        Assert.assertEquals(2, results.size());
+    }
+
+    @Test
+    public void runScriptWithPipelines_shouldWork() throws Exception {
+        engine.setPipelines(true);
+        new ScriptRunner(engine).run(script("/echo abc | /upper\n/echo \"a | b\""), results::add);
+        Assert.assertEquals("ABC", results.get(0).getValue());
+        Assert.assertEquals("a | b", results.get(1).getValue());
+        Assert.assertEquals(19, results.get(1).getOffset());
+    }
+
+    @Test(expected = IOException.class)
+    public void runScriptCommandLongerThanWindow_shouldThrowIOException() throws Exception {
+        new ScriptRunner(engine, 8).run(script("/echo averyveryverylongargument\n/add 1 2"), results::add);
+    }
+}
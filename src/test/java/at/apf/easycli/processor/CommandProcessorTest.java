@@ -0,0 +1,151 @@
+package at.apf.easycli.processor;
+
+import at.apf.easycli.annotation.Command;
+import at.apf.easycli.annotation.DefaultValue;
+import at.apf.easycli.annotation.Flag;
+import at.apf.easycli.annotation.Meta;
+import at.apf.easycli.annotation.Optional;
+import at.apf.easycli.annotation.Piped;
+import at.apf.easycli.annotation.Usage;
+import at.apf.easycli.exception.MalformedCommandException;
+import at.apf.easycli.impl.EasyEngine;
+import at.apf.easycli.spi.GeneratedDispatcher;
+import at.apf.easycli.impl.InvocationStrategy;
+import at.apf.easycli.util.enumeration.Material;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+
+public class CommandProcessorTest {
+
+    static class Calculator {
+        int calls;
+
+        @Command("/add")
+        @Usage("Adds \"two\" numbers \u00e4")
+        int add(int a, @DefaultValue("1") int b, @Flag(value = 'v', alternative = "verbose") @Usage("Verbose") boolean v,
+                @Flag('q') boolean q) {
+            calls++;
+            return v ? -(a + b) : a + b;
+        }
+
+        @Command("/sum")
+        long sum(@Meta String user, List<Integer> values) {
+            calls++;
+            return values.stream().mapToLong(Integer::longValue).sum() + user.length();
+        }
+
+        @Command("/paint")
+        void paint(java.util.Optional<Material> material, @Optional String... colors) {
+            calls++;
+        }
+
+        @Command("/scale")
+        long scale(@Piped Iterable<Object> values, int factor) {
+            calls++;
+            long sum = 0;
+            for (Object value: values) {
+                sum += ((Number) value).longValue() * factor;
+            }
+            return sum;
+        }
+
+        @Command("/who")
+        String who(@Meta Object user) {
+            calls++;
+            return String.valueOf(user);
+        }
+    }
+
+    private static class Hidden {
+        @Command("/hidden")
+        void hidden() {
+        }
+    }
+
+    static class Thrower {
+        @Command("/throw")
+        void fail(String message) throws Throwable {
+            throw new Throwable(message);
+        }
+    }
+
+    @Test
+    public void dispatcher_shouldBeGenerated() throws Exception {
+        Class<?> dispatcher = Class.forName(Calculator.class.getPackage().getName()
+                + ".CommandProcessorTest_Calculator" + GeneratedDispatcher.SUFFIX);
+        GeneratedDispatcher<?> instance = (GeneratedDispatcher<?>) dispatcher.getDeclaredConstructor().newInstance();
+        Assert.assertEquals(5, instance.commands().size());
+    }
+
+    @Test(expected = ClassNotFoundException.class)
+    public void privateClass_shouldBeSkipped() throws Exception {
+        Class.forName(Hidden.class.getPackage().getName() + ".CommandProcessorTest_Hidden"
+                + GeneratedDispatcher.SUFFIX);
+    }
+
+    @Test
+    public void commandThrowingThrowable_shouldBeRegisteredByReflection() throws Exception {
+        try {
+            Class.forName(Thrower.class.getPackage().getName() + ".CommandProcessorTest_Thrower"
+                    + GeneratedDispatcher.SUFFIX);
+            Assert.fail();
+        } catch (ClassNotFoundException e) {
+            EasyEngine engine = new EasyEngine();
+            engine.register(new Thrower());
+            try {
+                engine.parse("/throw boom");
+                Assert.fail();
+            } catch (InvocationTargetException ex) {
+                Assert.assertEquals("boom", ex.getCause().getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void parseWithGeneratedDispatcher_shouldWork() throws Exception {
+        EasyEngine engine = new EasyEngine();
+        Calculator calculator = new Calculator();
+        engine.register(calculator);
+        Assert.assertEquals(5, engine.parse("/add 2 3"));
+        Assert.assertEquals(-3, engine.parse("/add -v 2"));
+        Assert.assertEquals(9L, engine.parse("/sum 1 2 3", "bob"));
+        Assert.assertNull(engine.parse("/paint wood red green"));
+        Assert.assertEquals("bob", engine.parse("/who", "bob"));
+        Assert.assertEquals(5, calculator.calls);
+    }
+
+    @Test
+    public void parsePipelineWithGeneratedDispatcher_shouldWork() throws Exception {
+        EasyEngine engine = new EasyEngine();
+        engine.setPipelines(true);
+        engine.register(new Calculator());
+        Assert.assertEquals(30L, engine.parse("/add 2 3 | /scale 6"));
+    }
+
+    @Test
+    public void generatedUsage_shouldMatchReflection() {
+        EasyEngine generated = new EasyEngine();
+        generated.register(new Calculator());
+        EasyEngine reflection = new EasyEngine(InvocationStrategy.REFLECTION);
+        reflection.register(new Calculator());
+        for (String cmd: new String[]{"/add", "/sum", "/paint", "/scale", "/who"}) {
+            Assert.assertEquals(reflection.usage(cmd), generated.usage(cmd));
+        }
+        Assert.assertEquals(reflection.listCommands(), generated.listCommands());
+    }
+
+    @Test
+    public void generatedDispatcher_shouldKnowParameterNames() throws Exception {
+        EasyEngine engine = new EasyEngine();
+        engine.register(new Calculator());
+        try {
+            engine.parse("/add");
+            Assert.fail();
+        } catch (MalformedCommandException e) {
+            Assert.assertEquals("Argument 'a' is missing.", e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package at.apf.easycli.util;
 
+import at.apf.easycli.util.enumeration.Ambiguous;
+import at.apf.easycli.util.enumeration.Direction;
 import at.apf.easycli.util.enumeration.Material;
+import at.apf.easycli.util.enumeration.Size;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -19,4 +22,62 @@ public class TypeParserTest {
     public void parseNotExistingEnum_shouldThrowIllegalArgumentException() {
         tp.toEnum(Material.class, "Water");
     }
+
+    @Test
+    public void registerConverter_shouldMakeTypeValid() {
+        Assert.assertFalse(tp.isValidType(StringBuilder.class));
+        tp.registerConverter(StringBuilder.class, StringBuilder::new);
+        Assert.assertTrue(tp.isValidType(StringBuilder.class));
+        Assert.assertTrue(tp.isValidType(StringBuilder[].class));
+        Assert.assertEquals("abc", tp.parseType(StringBuilder.class, "abc").toString());
+    }
+
+    @Test
+    public void parseEnumAlias_shouldWork() {
+        Assert.assertEquals(Direction.NORTH, tp.toEnum(Direction.class, "up"));
+        Assert.assertEquals(Direction.WEST, tp.toEnum(Direction.class, "W"));
+        Assert.assertEquals(Direction.EAST, tp.parseType(Direction.class, "Right"));
+    }
+
+    @Test
+    public void parseEnumPrefix_shouldWork() {
+        tp.setEnumPrefixes(true);
+        Assert.assertEquals(Material.STONE, tp.toEnum(Material.class, "sto"));
+        Assert.assertEquals(Material.WOOD, tp.toEnum(Material.class, "w"));
+        Assert.assertEquals(Direction.SOUTH, tp.toEnum(Direction.class, "sou"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseAmbiguousEnumPrefix_shouldThrowIllegalArgumentException() {
+        tp.setEnumPrefixes(true);
+        tp.toEnum(Material.class, "st");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseEnumPrefixDisabled_shouldThrowIllegalArgumentException() {
+        tp.toEnum(Material.class, "sto");
+    }
+
+    @Test
+    public void parseNotExistingEnum_shouldListValidValues() {
+        try {
+            tp.toEnum(Material.class, "Water");
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().endsWith("WOOD, STEEL, COOPER, STONE"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ambiguousEnumAlias_shouldThrowIllegalArgumentException() {
+        tp.converterFor(Ambiguous.class);
+    }
+
+    @Test
+    public void parseEnumConstantsDifferingByCase_shouldMatchExactly() {
+        Assert.assertEquals(Size.BIG, tp.toEnum(Size.class, "BIG"));
+        Assert.assertEquals(Size.Big, tp.toEnum(Size.class, "Big"));
+        Assert.assertEquals(Size.Big, tp.toEnum(Size.class, "big"));
+        Assert.assertEquals(Size.small, tp.toEnum(Size.class, "SMALL"));
+    }
 }
@@ -0,0 +1,10 @@
+package at.apf.easycli.util.enumeration;
+
+import at.apf.easycli.annotation.Alias;
+
+public enum Ambiguous {
+    @Alias("second")
+    FIRST,
+    SECOND,
+    ;
+}
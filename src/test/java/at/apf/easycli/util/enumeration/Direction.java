@@ -0,0 +1,15 @@
+package at.apf.easycli.util.enumeration;
+
+import at.apf.easycli.annotation.Alias;
+
+public enum Direction {
+    @Alias({"n", "up"})
+    NORTH,
+    @Alias({"e", "right"})
+    EAST,
+    @Alias({"s", "down"})
+    SOUTH,
+    @Alias({"w", "left"})
+    WEST,
+    ;
+}
@@ -0,0 +1,8 @@
+package at.apf.easycli.util.enumeration;
+
+public enum Size {
+    Big,
+    BIG,
+    small,
+    ;
+}